@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * <p>
+ * Compares two JMH result files (generated with <code>-rf csv</code>) and fails when any benchmark of the
+ * current run is slower than the baseline by more than the allowed tolerance.
+ * </p>
+ * <p>
+ * Usage: <pre>{@code java -cp benchmarks.jar com.github.gilbertotorrezan.gwtviews.benchmarks.RegressionGate baseline.csv current.csv [tolerance] }</pre>
+ * The tolerance is a fraction of the baseline score, and defaults to <code>0.10</code> (10%).
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class RegressionGate {
+	
+	private static final double DEFAULT_TOLERANCE = 0.10;
+	
+	private RegressionGate(){}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2){
+			System.err.println("Usage: RegressionGate <baseline.csv> <current.csv> [tolerance]");
+			System.exit(2);
+		}
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+		
+		Map<String, Result> baseline = read(args[0]);
+		Map<String, Result> current = read(args[1]);
+		
+		int regressions = 0;
+		for (Entry<String, Result> entry : baseline.entrySet()) {
+			Result before = entry.getValue();
+			Result after = current.get(entry.getKey());
+			if (after == null){
+				System.out.println("MISSING    " + entry.getKey());
+				continue;
+			}
+			
+			//throughput modes are better when higher, time modes are better when lower
+			double change = before.higherIsBetter ? (before.score - after.score) / before.score : (after.score - before.score) / before.score;
+			boolean regressed = change > tolerance;
+			if (regressed){
+				regressions++;
+			}
+			System.out.println(String.format("%-10s %s: %.3f -> %.3f %s (%+.1f%%)", regressed ? "REGRESSED" : "OK", 
+					entry.getKey(), before.score, after.score, after.unit, change * 100));
+		}
+		
+		if (regressions > 0){
+			System.out.println(regressions + " benchmark(s) regressed more than " + (tolerance * 100) + "%.");
+			System.exit(1);
+		}
+	}
+	
+	private static Map<String, Result> read(String file) throws IOException {
+		Map<String, Result> results = new LinkedHashMap<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			List<String> header = split(reader.readLine());
+			int benchmarkIndex = header.indexOf("Benchmark");
+			int modeIndex = header.indexOf("Mode");
+			int scoreIndex = header.indexOf("Score");
+			int unitIndex = header.indexOf("Unit");
+			
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()){
+					continue;
+				}
+				List<String> columns = split(line);
+				
+				//the benchmark name plus all the "Param: " columns identify the result
+				StringBuilder key = new StringBuilder(columns.get(benchmarkIndex));
+				for (int i = unitIndex + 1; i < columns.size(); i++) {
+					key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(columns.get(i));
+				}
+				
+				Result result = new Result();
+				result.score = Double.parseDouble(columns.get(scoreIndex).replace(',', '.'));
+				result.unit = columns.get(unitIndex);
+				result.higherIsBetter = "thrpt".equals(columns.get(modeIndex));
+				results.put(key.toString(), result);
+			}
+		}
+		return results;
+	}
+	
+	private static List<String> split(String line){
+		List<String> columns = new ArrayList<>();
+		StringBuilder builder = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char ch = line.charAt(i);
+			if (ch == '"'){
+				quoted = !quoted;
+			}
+			else if (ch == ',' && !quoted){
+				columns.add(builder.toString());
+				builder.setLength(0);
+			}
+			else {
+				builder.append(ch);
+			}
+		}
+		columns.add(builder.toString());
+		return columns;
+	}
+	
+	private static class Result {
+		private double score;
+		private String unit;
+		private boolean higherIsBetter;
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.gilbertotorrezan.gwtviews.client.URLToken;
+
+/**
+ * JMH benchmarks for the {@link URLToken} parser, serializer and comparison methods. 
+ * Each benchmark runs against a set of realistic token shapes, selected by the {@link #shape} parameter.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class URLTokenBenchmark {
+	
+	/**
+	 * The shape of the token used by the benchmarks.
+	 */
+	public enum TokenShape {
+		
+		/** A short id with a single parameter, like the ones used by detail pages. */
+		SHORT("order&id=42"),
+		
+		/** A list page carrying its whole filter state: 24 parameters. */
+		MANY_PARAMETERS(manyParameters()),
+		
+		/** Parameters with quoted complex values, which contain reserved characters. */
+		COMPLEX_VALUES("search&id=42&q='name=john&age=30'&sort='date desc'&next='#orders?page=2'&label='a:b'&page=3"),
+		
+		/** A long, path-like id with a couple of parameters. */
+		LONG_ID("customers/1234567/orders/7654321/items/99/history/2016/revisions/latest&id=42&tab=details");
+		
+		private final String token;
+		
+		private TokenShape(String token) {
+			this.token = token;
+		}
+		
+		public String getToken() {
+			return token;
+		}
+		
+		private static String manyParameters(){
+			StringBuilder builder = new StringBuilder("list&id=42");
+			for (int i = 0; i < 22; i++){
+				builder.append("&filter").append(i).append("=value").append(i);
+			}
+			return builder.append("&page=3").toString();
+		}
+	}
+	
+	@Param
+	public TokenShape shape;
+	
+	private String raw;
+	private URLToken token;
+	private URLToken other;
+	private URLToken reused;
+
+	@Setup
+	public void setup(){
+		raw = shape.getToken();
+		token = new URLToken(raw);
+		other = new URLToken(raw);
+		reused = new URLToken("");
+	}
+	
+	@Benchmark
+	public URLToken parse(){
+		return new URLToken(raw);
+	}
+	
+	@Benchmark
+	public URLToken setToken(){
+		reused.setToken(raw);
+		return reused;
+	}
+	
+	@Benchmark
+	public String serialize(){
+		//setting the id marks the token as changed, so toString() serializes the whole token even if the serialized form of
+		//unchanged tokens is cached
+		token.setId(token.getId());
+		return token.toString();
+	}
+	
+	@Benchmark
+	public String toStringUnchanged(){
+		return token.toString();
+	}
+	
+	@Benchmark
+	public boolean equalsUnchanged(){
+		return token.equals(other);
+	}
+	
+	@Benchmark
+	public boolean equalsAfterChange(){
+		token.setId(token.getId());
+		other.setId(other.getId());
+		return token.equals(other);
+	}
+	
+	@Benchmark
+	public int hashCodeUnchanged(){
+		return token.hashCode();
+	}
+	
+	@Benchmark
+	public URLToken cloneToken(){
+		return token.clone();
+	}
+	
+	@Benchmark
+	public void typedGetters(Blackhole blackhole){
+		blackhole.consume(token.getParameter("id"));
+		blackhole.consume(token.getParameterAsInt("id", 0));
+		blackhole.consume(token.getParameterAsInt("page", 1));
+		blackhole.consume(token.getParameterAsDouble("id", 0));
+		blackhole.consume(token.getParameterAsBoolean("id"));
+		blackhole.consume(token.containsParameter("missing"));
+	}
+	
+	@Benchmark
+	public String parseAndReadId(){
+		return new URLToken(raw).getId();
+	}
+
+}
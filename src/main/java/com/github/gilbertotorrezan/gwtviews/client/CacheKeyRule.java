@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Normalizes {@link URLToken}s into the keys used by the {@link CachedPresenter} to cache {@link View}s, so tokens that differ only in
+ * volatile parameters (like <code>utm_source</code>) or in the order of their parameters share the same View instance.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ * 
+ * @see View#cacheKeyParameters()
+ * @see View#cacheKeyIgnoredParameters()
+ * @see View#cacheKeyIgnoreOrder()
+ * @see View#cacheKeyDropEmpty()
+ */
+public class CacheKeyRule {
+	
+	private final Set<String> parameters;
+	private final Set<String> ignoredParameters;
+	private final boolean ignoreOrder;
+	private final boolean dropEmpty;
+	
+	/**
+	 * Creates a new rule.
+	 * 
+	 * @param parameters The only parameters that take part in the key. Use an empty array to use all the parameters
+	 * @param ignoredParameters The parameters that never take part in the key
+	 * @param ignoreOrder <code>true</code> to sort the parameters by name, so their order doesn't change the key
+	 * @param dropEmpty <code>true</code> to ignore the parameters without values
+	 */
+	public CacheKeyRule(String[] parameters, String[] ignoredParameters, boolean ignoreOrder, boolean dropEmpty) {
+		this.parameters = parameters.length == 0 ? null : new HashSet<>(Arrays.asList(parameters));
+		this.ignoredParameters = new HashSet<>(Arrays.asList(ignoredParameters));
+		this.ignoreOrder = ignoreOrder;
+		this.dropEmpty = dropEmpty;
+	}
+	
+	/**
+	 * Gets the cache key of the token. The key is a valid token itself, with the same tokenId and only the parameters
+	 * selected by this rule.
+	 */
+	public String getCacheKey(URLToken url) {
+		List<String> names = url.getParameterNames();
+		List<String> selected = new ArrayList<>(names.size());
+		for (String name : names) {
+			if (parameters != null && !parameters.contains(name)){
+				continue;
+			}
+			if (ignoredParameters.contains(name)){
+				continue;
+			}
+			if (dropEmpty){
+				String value = url.getParameter(name);
+				if (value == null || value.isEmpty()){
+					continue;
+				}
+			}
+			selected.add(name);
+		}
+		if (selected.size() == names.size() && !ignoreOrder){
+			//nothing to normalize
+			return url.toString();
+		}
+		if (ignoreOrder){
+			Collections.sort(selected);
+		}
+		StringBuilder builder = new StringBuilder(url.getId());
+		for (String name : selected) {
+			URLToken.appendParameter(builder, name, url.getParameter(name));
+		}
+		return builder.toString();
+	}
+
+}
@@ -1,13 +1,28 @@
 package com.github.gilbertotorrezan.gwtviews.client;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
+import com.google.gwt.event.logical.shared.AttachEvent;
+import com.google.gwt.event.logical.shared.AttachEvent.Handler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.Widget;
 
 /**
  * Utility Presenter that implements the {@link CachePolicy#SAME_URL} policy. When using this class,
  * override the {@link #createNewView(URLToken)} method instead of the {@link #getView(URLToken)} to use the cache.
+ * <p>
+ * The cache can be bounded by a maximum number of entries and by a time since the last access to each entry
+ * (see {@link View#maxEntries()} and {@link View#expireAfterAccess()}). The least recently used Views are
+ * evicted first, and each evicted View is passed to {@link #onViewEvicted(String, Widget)}. Views still attached to the page
+ * (see {@link #isViewInUse(Widget)}) are kept until they leave it, even over the limits. The cached Views also count
+ * towards the {@link ViewCacheBudget} shared by all the Presenters of the application.
+ * </p>
  * 
  * @author Gilberto Torrezan Filho
  *
@@ -15,19 +30,273 @@ import com.google.gwt.user.client.ui.Widget;
  */
 public abstract class CachedPresenter<T extends Widget> implements Presenter<T> {
 	
-	protected Map<String, T> viewCache = new HashMap<>();
-
+	protected Map<String, T> viewCache;
+	
+	private final int maxEntries;
+	private final long expireAfterAccessMillis;
+	private final ViewCacheBudget budget;
+	private final Map<String, Long> accessTimes = new HashMap<>();
+	private final List<Entry<String, T>> evicted = new ArrayList<>();
+	
+	/**
+	 * Creates a Presenter with an unbounded cache.
+	 */
+	protected CachedPresenter() {
+		this(0, 0);
+	}
+	
+	/**
+	 * Creates a Presenter with a bounded cache.
+	 * 
+	 * @param maxEntries The maximum number of cached Views. Use <code>0</code> for no limit
+	 * @param expireAfterAccessMillis The time after the last access, in milliseconds, a cached View is evicted.
+	 * Use <code>0</code> for no expiration
+	 * 
+	 * @since v.1.4.1
+	 */
+	protected CachedPresenter(int maxEntries, long expireAfterAccessMillis) {
+		this(maxEntries, expireAfterAccessMillis, ViewCacheBudget.get());
+	}
+	
+	/**
+	 * Creates a Presenter with a bounded cache, using a custom {@link ViewCacheBudget}.
+	 * 
+	 * @param maxEntries The maximum number of cached Views. Use <code>0</code> for no limit
+	 * @param expireAfterAccessMillis The time after the last access, in milliseconds, a cached View is evicted.
+	 * Use <code>0</code> for no expiration
+	 * @param budget The budget shared with other Presenters, or <code>null</code> to not use any
+	 * 
+	 * @since v.1.4.1
+	 */
+	protected CachedPresenter(int maxEntries, long expireAfterAccessMillis, ViewCacheBudget budget) {
+		if (maxEntries < 0){
+			throw new IllegalArgumentException("maxEntries must not be negative: " + maxEntries);
+		}
+		if (expireAfterAccessMillis < 0){
+			throw new IllegalArgumentException("expireAfterAccessMillis must not be negative: " + expireAfterAccessMillis);
+		}
+		this.maxEntries = maxEntries;
+		this.expireAfterAccessMillis = expireAfterAccessMillis;
+		this.budget = budget;
+		//the access order keeps the least recently used View at the head, so evictions start from the head
+		this.viewCache = new LinkedHashMap<>(16, 0.75f, true);
+	}
+	
 	@Override
 	public T getView(URLToken url) {
-		String token = url.toString();
+		String token = getCacheKey(url);
+		if (expireAfterAccessMillis > 0){
+			expireEntries(currentTimeMillis());
+		}
 		T cached = viewCache.get(token);
 		if (cached == null){
 			cached = createNewView(url);
 			viewCache.put(token, cached);
 		}
+		if (expireAfterAccessMillis > 0){
+			accessTimes.put(token, currentTimeMillis());
+		}
+		if (maxEntries > 0){
+			evictOverLimit(token);
+		}
+		disposeEvicted();
+		if (budget != null){
+			budget.touch(this, token);
+		}
 		return cached;
 	}
 	
+	/**
+	 * Gets the key used to cache the View of the URL. Tokens with the same key share the same View instance. The default 
+	 * implementation uses the complete token.
+	 * 
+	 * @param url The current URL state of the application
+	 * @return The key of the View at the cache
+	 * 
+	 * @see CacheKeyRule
+	 * @since v.1.4.1
+	 */
+	protected String getCacheKey(URLToken url) {
+		return url.toString();
+	}
+	
+	/**
+	 * Checks if the View of the URL is at the cache, without creating it or changing the order of the evictions.
+	 * 
+	 * @param url The URL state of the application
+	 * @return <code>true</code> if {@link #getView(URLToken)} would return a cached View
+	 * 
+	 * @since v.1.4.1
+	 */
+	public boolean isCached(URLToken url) {
+		return viewCache.containsKey(getCacheKey(url));
+	}
+	
+	/**
+	 * Removes all the Views from the cache, calling {@link #onViewEvicted(String, Widget)} for each of them. Views still in use
+	 * (see {@link #isViewInUse(Widget)}), like the View being shown when the user logs out, leave the cache right away but 
+	 * are only notified after they are detached from the page.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public void clearViewCache() {
+		Map<String, T> views = new LinkedHashMap<>(viewCache);
+		viewCache.clear();
+		accessTimes.clear();
+		for (Entry<String, T> entry : views.entrySet()) {
+			if (budget != null){
+				budget.remove(this, entry.getKey());
+			}
+			if (isViewInUse(entry.getValue())){
+				evictOnDetach(entry.getKey(), entry.getValue());
+			}
+			else {
+				release(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of Views currently at the cache.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public int getCacheSize() {
+		return viewCache.size();
+	}
+	
+	private void expireEntries(long now) {
+		Iterator<Entry<String, T>> iterator = viewCache.entrySet().iterator();
+		while (iterator.hasNext()){
+			Entry<String, T> eldest = iterator.next();
+			Long lastAccess = accessTimes.get(eldest.getKey());
+			if (lastAccess == null || now - lastAccess < expireAfterAccessMillis){
+				//all the other entries were accessed after this one
+				break;
+			}
+			if (isViewInUse(eldest.getValue())){
+				//expires after it leaves the page
+				continue;
+			}
+			evicted.add(eldest);
+			iterator.remove();
+			accessTimes.remove(eldest.getKey());
+		}
+	}
+	
+	private void evictOverLimit(String requestedToken) {
+		Iterator<Entry<String, T>> iterator = viewCache.entrySet().iterator();
+		while (viewCache.size() > maxEntries && iterator.hasNext()){
+			Entry<String, T> eldest = iterator.next();
+			//the Views in use stay over the limit until they leave the page
+			if (eldest.getKey().equals(requestedToken) || isViewInUse(eldest.getValue())){
+				continue;
+			}
+			evicted.add(eldest);
+			iterator.remove();
+		}
+	}
+	
+	private void evictOnDetach(final String token, final T view) {
+		if (view.getParent() instanceof ViewStackPanel){
+			//removed from the stack when it is hidden, instead of staying attached until the stack is full
+			((ViewStackPanel) view.getParent()).release(view);
+		}
+		final HandlerRegistration[] registration = new HandlerRegistration[1];
+		registration[0] = view.addAttachHandler(new Handler() {
+			@Override
+			public void onAttachOrDetach(AttachEvent event) {
+				if (!event.isAttached()){
+					registration[0].removeHandler();
+					onViewEvicted(token, view);
+				}
+			}
+		});
+	}
+	
+	private void disposeEvicted() {
+		if (evicted.isEmpty()){
+			return;
+		}
+		List<Entry<String, T>> entries = new ArrayList<>(evicted);
+		evicted.clear();
+		for (Entry<String, T> entry : entries) {
+			accessTimes.remove(entry.getKey());
+			if (budget != null){
+				budget.remove(this, entry.getKey());
+			}
+			release(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	private void release(String token, T view) {
+		if (view.getParent() instanceof ViewStackPanel){
+			//the hidden Views of the stack leave the page with the cache
+			((ViewStackPanel) view.getParent()).release(view);
+		}
+		onViewEvicted(token, view);
+	}
+	
+	/**
+	 * Called by the {@link ViewCacheBudget} to evict a View over the global budget.
+	 * 
+	 * @return <code>false</code> if the View is in use and was kept at the cache
+	 */
+	boolean evict(String token) {
+		T view = viewCache.get(token);
+		if (view != null && isViewInUse(view)){
+			return false;
+		}
+		viewCache.remove(token);
+		accessTimes.remove(token);
+		if (view != null){
+			release(token, view);
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks if a cached View is in use, and so can't be evicted by the {@link View#maxEntries()}, the 
+	 * {@link View#expireAfterAccess()} or the {@link ViewCacheBudget}. The default implementation
+	 * checks if the View is attached to the page, except for the hidden Views kept by a {@link ViewStackPanel}, which are 
+	 * removed from the stack when evicted.
+	 * 
+	 * @param view The cached View
+	 * @return <code>true</code> if the View must be kept at the cache
+	 * 
+	 * @since v.1.4.1
+	 */
+	protected boolean isViewInUse(T view) {
+		if (view.getParent() instanceof ViewStackPanel){
+			return ((ViewStackPanel) view.getParent()).getVisibleView() == view;
+		}
+		return view.isAttached();
+	}
+	
+	/**
+	 * Called when a View is removed from the cache. The default implementation calls {@link DisposableView#dispose()}
+	 * when the View implements {@link DisposableView}.
+	 * 
+	 * @param token The URL token the View was cached with
+	 * @param view The evicted View
+	 * 
+	 * @since v.1.4.1
+	 */
+	protected void onViewEvicted(String token, T view) {
+		if (view instanceof DisposableView){
+			((DisposableView) view).dispose();
+		}
+	}
+	
+	/**
+	 * Gets the current time used to expire the cached Views. Can be overridden for testing.
+	 * 
+	 * @since v.1.4.1
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+	
 	/**
 	 * Called when a new View needs to be created.
 	 * 
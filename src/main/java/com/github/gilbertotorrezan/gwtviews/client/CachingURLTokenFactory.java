@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * <p>
+ * A {@link URLTokenFactory} that keeps the most recently parsed tokens in a bounded LRU cache, keyed by the
+ * token String. Navigating back and forth between the same Views reuses the parsed tokens instead of parsing
+ * them again.
+ * </p>
+ * <p>
+ * The cached tokens are never handed out directly: each call to {@link #createToken(String)} returns a
+ * {@link URLToken#clone()} of the cached one, which shares its state until either of them is changed. The factory never
+ * parses the parameters itself: the cached token keeps the raw String, and the parameters are parsed only by the copies
+ * that read them, so navigations that only need the id of the View don't parse the parameters at all.
+ * When the tokens are created by a custom factory, the custom {@link URLToken} subclass must override 
+ * {@link URLToken#clone()} to return an instance of the same subclass.
+ * </p>
+ * <p>
+ * To use it, call:
+ * <pre>{@code NavigationManager.setURLTokenFactory(new CachingURLTokenFactory()); }</pre>
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class CachingURLTokenFactory extends URLTokenFactory {
+	
+	/**
+	 * The maximum number of tokens kept when no size is defined.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 64;
+	
+	private final URLTokenFactory delegate;
+	private final Map<String, URLToken> templates;
+	
+	private int hitCount;
+	private int missCount;
+	
+	/**
+	 * Creates a new caching factory that keeps up to {@link #DEFAULT_MAX_SIZE} tokens.
+	 */
+	public CachingURLTokenFactory() {
+		this(DEFAULT_MAX_SIZE);
+	}
+	
+	/**
+	 * Creates a new caching factory.
+	 * 
+	 * @param maxSize The maximum number of tokens kept by the cache
+	 */
+	public CachingURLTokenFactory(int maxSize) {
+		this(new URLTokenFactory(), maxSize);
+	}
+	
+	/**
+	 * Creates a new caching factory that caches the tokens created by another factory.
+	 * 
+	 * @param delegate The factory used to create the tokens that are not in the cache
+	 * @param maxSize The maximum number of tokens kept by the cache
+	 */
+	public CachingURLTokenFactory(URLTokenFactory delegate, final int maxSize) {
+		if (maxSize < 1){
+			throw new IllegalArgumentException("The maxSize must be greater than 0: " + maxSize);
+		}
+		this.delegate = delegate;
+		this.templates = new LinkedHashMap<String, URLToken>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Entry<String, URLToken> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+	
+	@Override
+	public URLToken createToken(String completeToken) {
+		if (completeToken == null){
+			return delegate.createToken(null);
+		}
+		URLToken template = templates.get(completeToken);
+		if (template != null){
+			hitCount++;
+		}
+		else {
+			missCount++;
+			//only the raw token is kept: the parameters are parsed by the copies that read them
+			template = delegate.createToken(completeToken);
+			templates.put(completeToken, template);
+		}
+		return template.clone();
+	}
+	
+	/**
+	 * @return The number of calls to {@link #createToken(String)} answered by the cache
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * @return The number of calls to {@link #createToken(String)} that had to parse the token
+	 */
+	public int getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * @return The number of tokens currently in the cache
+	 */
+	public int getSize() {
+		return templates.size();
+	}
+	
+	/**
+	 * Removes all the tokens from the cache. The hit and miss counters are kept.
+	 */
+	public void clear() {
+		templates.clear();
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+/**
+ * <p>
+ * A {@link UserPresenceManager} that remembers the access granted by another UserPresenceManager for a period of time, so navigating
+ * back and forth between non-public {@link View}s doesn't ask the server again at each navigation. The decisions are kept per set
+ * of roles, and optionally per tokenId. Concurrent requests for the same decision share a single call to the other manager.
+ * </p>
+ * <p>
+ * Only granted accesses are kept: when the access is denied (or fails), the next navigation asks again, so the user can access
+ * the Views right after logging in. The decisions are discarded by {@link NavigationManager#clearCache()} and 
+ * {@link NavigationManager#invalidateAuthorization()}, which should be called when the user logs out or when their roles change.
+ * </p>
+ * <p>
+ * To use it, call:
+ * <pre>{@code NavigationManager.setUserPresenceManager(new CachingUserPresenceManager(new MyUserPresenceManager(), 60000)); }</pre>
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class CachingUserPresenceManager implements UserPresenceManager {
+	
+	private final UserPresenceManager delegate;
+	private final long timeToLiveMillis;
+	private final boolean perTokenId;
+	
+	//the time each decision was granted, by key
+	private final Map<String, Long> grants = new HashMap<>();
+	private final Map<String, List<AsyncCallback<Boolean>>> pending = new HashMap<>();
+	//incremented at each invalidation, so decisions requested before it are not kept
+	private int generation;
+	
+	/**
+	 * Creates a new caching manager that keeps the decisions per set of roles.
+	 * 
+	 * @param delegate The manager that takes the decisions
+	 * @param timeToLiveMillis The time, in milliseconds, a granted access is kept
+	 */
+	public CachingUserPresenceManager(UserPresenceManager delegate, long timeToLiveMillis) {
+		this(delegate, timeToLiveMillis, false);
+	}
+	
+	/**
+	 * Creates a new caching manager.
+	 * 
+	 * @param delegate The manager that takes the decisions
+	 * @param timeToLiveMillis The time, in milliseconds, a granted access is kept
+	 * @param perTokenId <code>true</code> to keep the decisions per tokenId as well, when the delegate decides based on the {@link URLToken}
+	 */
+	public CachingUserPresenceManager(UserPresenceManager delegate, long timeToLiveMillis, boolean perTokenId) {
+		if (delegate == null){
+			throw new IllegalArgumentException("The delegate must not be null");
+		}
+		if (timeToLiveMillis < 1){
+			throw new IllegalArgumentException("The timeToLiveMillis must be greater than 0: " + timeToLiveMillis);
+		}
+		this.delegate = delegate;
+		this.timeToLiveMillis = timeToLiveMillis;
+		this.perTokenId = perTokenId;
+	}
+	
+	@Override
+	public void isUserInAnyRole(URLToken url, String[] roles, AsyncCallback<Boolean> callback) {
+		final String key = getKey(url, roles);
+		Long grantedAt = grants.get(key);
+		if (grantedAt != null){
+			if (currentTimeMillis() - grantedAt < timeToLiveMillis){
+				callback.onSuccess(Boolean.TRUE);
+				return;
+			}
+			grants.remove(key);
+		}
+		
+		List<AsyncCallback<Boolean>> callbacks = pending.get(key);
+		if (callbacks != null){
+			callbacks.add(callback);
+			return;
+		}
+		final List<AsyncCallback<Boolean>> waiting = new ArrayList<>();
+		waiting.add(callback);
+		pending.put(key, waiting);
+		
+		final int requestGeneration = generation;
+		delegate.isUserInAnyRole(url, roles, new AsyncCallback<Boolean>() {
+			@Override
+			public void onSuccess(Boolean allowed) {
+				if (requestGeneration == generation && allowed != null && allowed){
+					grants.put(key, currentTimeMillis());
+				}
+				release(key, waiting);
+				for (AsyncCallback<Boolean> callback : waiting) {
+					callback.onSuccess(allowed);
+				}
+			}
+			
+			@Override
+			public void onFailure(Throwable caught) {
+				release(key, waiting);
+				for (AsyncCallback<Boolean> callback : waiting) {
+					callback.onFailure(caught);
+				}
+			}
+		});
+	}
+	
+	private void release(String key, List<AsyncCallback<Boolean>> waiting) {
+		//after an invalidation, the key may be waiting for a newer request
+		if (pending.get(key) == waiting){
+			pending.remove(key);
+		}
+	}
+	
+	private String getKey(URLToken url, String[] roles) {
+		String[] sorted = Arrays.copyOf(roles, roles.length);
+		Arrays.sort(sorted);
+		StringBuilder key = new StringBuilder();
+		if (perTokenId){
+			key.append(url.getId());
+		}
+		for (String role : sorted) {
+			//the line break can't be part of a tokenId, and is unlikely to be part of a role
+			key.append('\n').append(role);
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * Discards all the kept decisions. Requests still waiting for the other manager are answered, but their decisions are not kept,
+	 * and new requests are not merged with them.
+	 */
+	public void invalidateAuthorization() {
+		generation++;
+		grants.clear();
+		pending.clear();
+	}
+	
+	/**
+	 * @return The number of granted accesses currently kept, including the expired ones not yet removed
+	 */
+	public int getSize() {
+		return grants.size();
+	}
+	
+	/**
+	 * Gets the current time used to expire the decisions. Can be overridden for testing.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+}
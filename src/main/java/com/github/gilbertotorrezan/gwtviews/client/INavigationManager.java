@@ -42,10 +42,28 @@ public interface INavigationManager extends ValueChangeHandler<String> {
 	
 	void clearCache();
 	
+	void refresh();
+	
 	void clearCache(String tokenId);
 	
+	void invalidateAuthorization();
+	
 	void setURLTokenFactory(URLTokenFactory tokenFactory);
 	
 	URLTokenFactory getURLTokenFactory();
+	
+	void setPageViewTracker(PageViewTracker tracker);
+	
+	PageViewTracker getPageViewTracker();
+	
+	void prefetch(String token);
+	
+	void preload(String token);
+	
+	void preloadViews();
+	
+	void addNavigationListener(NavigationListener listener);
+	
+	void removeNavigationListener(NavigationListener listener);
 
 }
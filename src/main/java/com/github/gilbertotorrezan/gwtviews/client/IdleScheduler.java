@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Internal class used to run background work of the framework when the browser is idle, using <code>requestIdleCallback</code>
+ * when available and a deferred command otherwise.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+final class IdleScheduler {
+	
+	/**
+	 * Command executed when the browser is idle.
+	 */
+	interface IdleCommand {
+		
+		/**
+		 * @param timeRemaining The time, in milliseconds, the command can run without delaying the browser
+		 */
+		void execute(double timeRemaining);
+	}
+	
+	/**
+	 * The time, in milliseconds, given to the commands when the browser doesn't report how long it will be idle.
+	 */
+	static final double DEFAULT_TIME_SLICE = 5;
+	
+	private IdleScheduler(){}
+	
+	/**
+	 * Schedules the command to the next idle period. Outside of the browser (like in unit tests), the command is executed right away.
+	 */
+	static void schedule(final IdleCommand command) {
+		if (!GWT.isClient()){
+			command.execute(Double.MAX_VALUE);
+		}
+		else if (!requestIdleCallback(command)){
+			Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+				@Override
+				public void execute() {
+					command.execute(DEFAULT_TIME_SLICE);
+				}
+			});
+		}
+	}
+	
+	private static native boolean requestIdleCallback(IdleCommand command) /*-{
+		if (!$wnd.requestIdleCallback){
+			return false;
+		}
+		$wnd.requestIdleCallback($entry(function(deadline) {
+			command.@com.github.gilbertotorrezan.gwtviews.client.IdleScheduler.IdleCommand::execute(D)(deadline.timeRemaining());
+		}), {timeout: 2000});
+		return true;
+	}-*/;
+
+}
@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+/**
+ * Listener notified after each navigation is completed, with the time spent at each {@link NavigationPhase}. 
+ * Can be used to feed the navigation times to real user monitoring tools. 
+ * <p>
+ * The listeners are called right after the View is attached to the page, so they should defer any heavy work 
+ * (like sending the timings to a server). When no listener is registered, the navigations aren't measured at all.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ * 
+ * @see NavigationManager#addNavigationListener(NavigationListener)
+ * @since v.1.4.1
+ */
+public interface NavigationListener {
+	
+	/**
+	 * Called when a View is shown. Navigations superseded by newer ones, redirected to the login View, or to the URL 
+	 * already shown aren't reported.
+	 * 
+	 * @param timing The timestamps of the phases of the navigation
+	 */
+	void onNavigation(NavigationTiming timing);
+
+}
@@ -48,12 +48,16 @@ public class NavigationManager {
 	/**
 	 * Starts the framework, rendering the {@link View#defaultView()} to the page.
 	 * 
-	 * @param rootContainer The body widget of the page. Usually <code>RootLayoutPanel.get()</code>.
+	 * @param rootContainer The body widget of the page. Usually <code>RootLayoutPanel.get()</code>. When it implements 
+	 * {@link HasViews} (like the {@link ViewStackPanel}), the Views are shown by calling {@link HasViews#showView(URLToken, com.google.gwt.user.client.ui.Widget)} 
+	 * instead of replacing the content of the panel.
 	 */
 	public static void start(Panel rootContainer) {
 		manager.setRootContainer(rootContainer);
+		ViewPrefetcher.listenToAnchors(manager);
 		History.addValueChangeHandler(manager);
 		History.fireCurrentHistoryState();
+		manager.preloadViews();
 	}
 
 	/**
@@ -68,11 +72,25 @@ public class NavigationManager {
 	/**
 	 * Clears all the {@link Presenter} cache. All Presenters are stored in the cache (which, in turn, can cache {@link View}s). 
 	 * It is usually a good idea to clear the cache when the current user logs out the application.
+	 * The Views cached by {@link CachedPresenter}s are evicted, and notified when they implement {@link DisposableView}. The View
+	 * being shown is only notified after it leaves the page.
+	 * The authorization decisions kept by a {@link CachingUserPresenceManager} are discarded as well.
 	 */
 	public static void clearCache() {
 		manager.clearCache();
 	}
 
+	/**
+	 * Shows the current History token again, even when its {@link View} is already shown. Navigations to the token already shown
+	 * are skipped, except the ones fired by <code>History.fireCurrentHistoryState()</code>, which has the same effect as this
+	 * method.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void refresh() {
+		manager.refresh();
+	}
+	
 	/**
 	 * Clears the {@link Presenter} associated with the tokenId from the cache. If the same tokenId is called again, a new Presenter
 	 * will be created to handle the request.
@@ -81,6 +99,69 @@ public class NavigationManager {
 		manager.clearCache(tokenId);
 	}
 	
+	/**
+	 * Discards the authorization decisions kept by the {@link CachingUserPresenceManager}, if it is the current 
+	 * {@link UserPresenceManager}. Should be called when the roles of the current user change. The next navigation is not skipped
+	 * even when it points to the token already shown, so the access to the current View is checked again.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void invalidateAuthorization() {
+		manager.invalidateAuthorization();
+	}
+	
+	/**
+	 * Downloads the code of the {@link View} associated with the token, without creating or showing the View. Nothing is done 
+	 * when the token doesn't point to a View, or when prefetching is not allowed.
+	 * 
+	 * @param token The token of the View, with or without parameters
+	 * 
+	 * @see ViewPrefetcher
+	 * @since v.1.4.1
+	 */
+	public static void prefetch(String token) {
+		manager.prefetch(token);
+	}
+	
+	/**
+	 * Downloads the code and creates the {@link View} associated with the token when the browser is idle, without showing it. The View is kept by its 
+	 * {@link Presenter}, so the first navigation to the same token only attaches the View to the page. Nothing is done when
+	 * the token doesn't point to a View, or when the View uses the {@link CachePolicy#NEVER} policy.
+	 * <p>
+	 * Views that aren't public are only preloaded when the {@link UserPresenceManager} grants the access to the current user.
+	 * </p>
+	 * 
+	 * @param token The token the View is expected to be shown with
+	 * 
+	 * @see View#preload()
+	 * @since v.1.4.1
+	 */
+	public static void preload(String token) {
+		manager.preload(token);
+	}
+	
+	/**
+	 * Adds a listener to be notified with the time spent at each phase of the navigations. The navigations are only measured
+	 * while there are listeners registered.
+	 * 
+	 * @param listener The listener to be notified after each navigation
+	 * 
+	 * @see NavigationTiming
+	 * @since v.1.4.1
+	 */
+	public static void addNavigationListener(NavigationListener listener) {
+		manager.addNavigationListener(listener);
+	}
+	
+	/**
+	 * Removes a listener added by {@link #addNavigationListener(NavigationListener)}.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void removeNavigationListener(NavigationListener listener) {
+		manager.removeNavigationListener(listener);
+	}
+	
 	/**
 	 * Sets the injector instance to be used internally by the framework to inject views. If an injector instance is not declared here,
 	 * a new instance is created every time a view is invoked.
@@ -135,4 +216,25 @@ public class NavigationManager {
 	public URLTokenFactory getURLTokenFactory() {
 		return manager.getURLTokenFactory();
 	}
+	
+	/**
+	 * Sets the {@link PageViewTracker} called after each View is shown, replacing the one chosen by deferred binding.
+	 * 
+	 * @param tracker The tracker of the page views, or <code>null</code> to not track them
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void setPageViewTracker(PageViewTracker tracker) {
+		manager.setPageViewTracker(tracker);
+	}
+	
+	/**
+	 * Gets the current {@link PageViewTracker}. Unless {@link #setPageViewTracker(PageViewTracker)} was called, it is the one
+	 * chosen by deferred binding.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static PageViewTracker getPageViewTracker() {
+		return manager.getPageViewTracker();
+	}
 }
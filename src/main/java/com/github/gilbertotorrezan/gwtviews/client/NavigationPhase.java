@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+/**
+ * The phases of a navigation, measured by the {@link NavigationTiming}s reported to the {@link NavigationListener}s.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public enum NavigationPhase {
+	
+	/**
+	 * The parsing of the URL into a {@link URLToken} by the {@link URLTokenFactory}.
+	 */
+	TOKEN_PARSE,
+	
+	/**
+	 * The time the {@link URLInterceptor} of the previous View took to proceed to the new URL. Only present when the 
+	 * previous View has an interceptor.
+	 */
+	INTERCEPTOR,
+	
+	/**
+	 * The verification of the access to the View by the {@link UserPresenceManager}. Only present for Views that aren't public.
+	 */
+	AUTHORIZATION,
+	
+	/**
+	 * The download of the code of the View (or of its {@link View#fragmentGroup()}). Instant when the code is already loaded.
+	 */
+	FRAGMENT_LOAD,
+	
+	/**
+	 * The lookup of the {@link Presenter} of the View, and its creation when it isn't cached.
+	 */
+	PRESENTER,
+	
+	/**
+	 * The call to {@link Presenter#getView(URLToken)}, which creates the View when it isn't cached.
+	 */
+	GET_VIEW,
+	
+	/**
+	 * The time to show the View at its {@link ViewContainer} and attach it to the page, including the download of the 
+	 * code of the container when needed.
+	 */
+	SHOW_VIEW;
+
+}
@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import com.google.gwt.core.client.Duration;
+
+/**
+ * The timestamps of the {@link NavigationPhase}s of a navigation, reported to the {@link NavigationListener}s. 
+ * The timestamps are in milliseconds, as returned by {@link Duration#currentTimeMillis()}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class NavigationTiming {
+	
+	private static final int PHASES = NavigationPhase.values().length;
+	
+	private final double[] starts = new double[PHASES];
+	private final double[] ends = new double[PHASES];
+	private String token;
+	private String viewId;
+	private boolean presenterCached;
+	private boolean viewCached;
+	
+	NavigationTiming() {
+		for (int i = 0; i < PHASES; i++) {
+			starts[i] = -1;
+			ends[i] = -1;
+		}
+	}
+	
+	void start(NavigationPhase phase) {
+		start(phase, Duration.currentTimeMillis());
+	}
+	
+	void start(NavigationPhase phase, double time) {
+		starts[phase.ordinal()] = time;
+	}
+	
+	void end(NavigationPhase phase) {
+		end(phase, Duration.currentTimeMillis());
+	}
+	
+	void end(NavigationPhase phase, double time) {
+		ends[phase.ordinal()] = time;
+	}
+	
+	void setToken(String token) {
+		this.token = token;
+	}
+	
+	void setView(String viewId, boolean presenterCached) {
+		this.viewId = viewId;
+		this.presenterCached = presenterCached;
+	}
+	
+	void setViewCached(boolean viewCached) {
+		this.viewCached = viewCached;
+	}
+	
+	/**
+	 * Gets the URL token of the navigation.
+	 */
+	public String getToken() {
+		return token;
+	}
+	
+	/**
+	 * Gets the {@link View#value()} of the shown View. For URLs that don't match any View, it is the id of the 404 View.
+	 */
+	public String getViewId() {
+		return viewId;
+	}
+	
+	/**
+	 * Gets whether the {@link Presenter} of the View was already created by a previous navigation or preloading.
+	 */
+	public boolean isPresenterCached() {
+		return presenterCached;
+	}
+	
+	/**
+	 * Gets whether the View was reused from the cache of its Presenter (see {@link CachePolicy}). Always <code>false</code> 
+	 * for custom Presenters that don't extend the {@link CachedPresenter}.
+	 */
+	public boolean isViewCached() {
+		return viewCached;
+	}
+	
+	/**
+	 * Gets whether the phase happened at the navigation. Some phases, like the {@link NavigationPhase#INTERCEPTOR}, only 
+	 * happen for some Views.
+	 */
+	public boolean hasPhase(NavigationPhase phase) {
+		return ends[phase.ordinal()] >= 0;
+	}
+	
+	/**
+	 * Gets the time the phase started, or <code>-1</code> if it didn't happen.
+	 */
+	public double getStart(NavigationPhase phase) {
+		return starts[phase.ordinal()];
+	}
+	
+	/**
+	 * Gets the time the phase ended, or <code>-1</code> if it didn't happen.
+	 */
+	public double getEnd(NavigationPhase phase) {
+		return ends[phase.ordinal()];
+	}
+	
+	/**
+	 * Gets the time spent at the phase, or <code>0</code> if it didn't happen.
+	 */
+	public double getDuration(NavigationPhase phase) {
+		if (!hasPhase(phase)){
+			return 0;
+		}
+		return ends[phase.ordinal()] - starts[phase.ordinal()];
+	}
+	
+	/**
+	 * Gets the time the URL changed.
+	 */
+	public double getStartTime() {
+		return getStart(NavigationPhase.TOKEN_PARSE);
+	}
+	
+	/**
+	 * Gets the time the View was shown.
+	 */
+	public double getEndTime() {
+		return getEnd(NavigationPhase.SHOW_VIEW);
+	}
+	
+	/**
+	 * Gets the total time of the navigation, from the change of the URL to the View being shown.
+	 */
+	public double getTotalTime() {
+		return getEndTime() - getStartTime();
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("NavigationTiming [token=").append(token).append(", viewId=").append(viewId)
+				.append(", presenterCached=").append(presenterCached).append(", viewCached=").append(viewCached)
+				.append(", total=").append(getTotalTime());
+		for (NavigationPhase phase : NavigationPhase.values()) {
+			if (hasPhase(phase)){
+				builder.append(", ").append(phase).append("=").append(getDuration(phase));
+			}
+		}
+		return builder.append("]").toString();
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+/**
+ * Tracks the page views of the application. The NavigationManager calls it after each View is shown. The implementation 
+ * is chosen by deferred binding: the <code>gwtviews</code> module binds the {@link NoOpPageViewTracker}, and the 
+ * <code>com.github.gilbertotorrezan.gwtviews.analytics</code> module binds a tracker backed by Google Analytics. Custom
+ * trackers can be set with a <code>replace-with</code> rule at the module of the application:
+ * 
+ * <pre>
+ * &lt;replace-with class="com.example.client.MyPageViewTracker"&gt;
+ * 	&lt;when-type-is class="com.github.gilbertotorrezan.gwtviews.client.PageViewTracker"/&gt;
+ * &lt;/replace-with&gt;
+ * </pre>
+ * 
+ * Or at runtime, with the {@link NavigationManager#setPageViewTracker(PageViewTracker)} method.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public interface PageViewTracker {
+	
+	/**
+	 * Tracks a page view. Called right after the View is attached to the page, so heavy work should be deferred.
+	 * 
+	 * @param pageWithParameters The token of the shown View, including its parameters
+	 */
+	void sendPageView(String pageWithParameters);
+
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * <p>
+ * Internal class used by the {@link NavigationManager} to match tokenIds against route patterns, like <code>customers/{id}/orders</code>.
+ * The patterns are split by <code>/</code> into segments, stored in a trie. A segment in the <code>{name}</code> form is a variable, 
+ * which matches any non-empty segment.
+ * </p>
+ * <p>
+ * Static segments take precedence over variables. Before the first match, the routes reachable through a variable are copied 
+ * into its static siblings, so the matching never backtracks: each segment of the tokenId is looked up once. The variables are
+ * stored by position at each route, so they don't depend on the path taken through the trie.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+final class RouteTrie {
+	
+	private static final class Node {
+		
+		private Map<String, Node> children;
+		private Node variable;
+		private int route = -1;
+		//the name of the variable at each segment of the route, or null for static segments
+		private String[] variables;
+		
+		private Node copy() {
+			Node copy = new Node();
+			copy.route = route;
+			copy.variables = variables;
+			if (children != null){
+				copy.children = new HashMap<>();
+				for (Entry<String, Node> child : children.entrySet()) {
+					copy.children.put(child.getKey(), child.getValue().copy());
+				}
+			}
+			if (variable != null){
+				copy.variable = variable.copy();
+			}
+			return copy;
+		}
+		
+		/**
+		 * Adds the routes of the other node, keeping the routes of this one when both have them.
+		 */
+		private void merge(Node other) {
+			if (route < 0){
+				route = other.route;
+				variables = other.variables;
+			}
+			if (other.children != null){
+				if (children == null){
+					children = new HashMap<>();
+				}
+				for (Entry<String, Node> child : other.children.entrySet()) {
+					Node existing = children.get(child.getKey());
+					if (existing == null){
+						children.put(child.getKey(), child.getValue().copy());
+					}
+					else {
+						existing.merge(child.getValue());
+					}
+				}
+			}
+			if (other.variable != null){
+				if (variable == null){
+					variable = other.variable.copy();
+				}
+				else {
+					variable.merge(other.variable);
+				}
+			}
+		}
+		
+		private void compile() {
+			if (children == null){
+				if (variable != null){
+					variable.compile();
+				}
+				return;
+			}
+			if (variable != null){
+				for (Node child : children.values()) {
+					child.merge(variable);
+				}
+				variable.compile();
+			}
+			for (Node child : children.values()) {
+				child.compile();
+			}
+		}
+	}
+	
+	private final Node root = new Node();
+	private boolean compiled;
+	
+	/**
+	 * Adds a route pattern.
+	 * 
+	 * @param pattern The pattern, like <code>customers/{id}/orders</code>
+	 * @param route The number returned by {@link #match(URLToken)} when the pattern is matched. Must not be negative
+	 * @return This trie, for method chaining
+	 */
+	RouteTrie add(String pattern, int route) {
+		if (route < 0){
+			throw new IllegalArgumentException("The route must not be negative: " + route);
+		}
+		String[] segments = pattern.split("/", -1);
+		String[] variables = new String[segments.length];
+		Node node = root;
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if (isVariable(segment)){
+				variables[i] = segment.substring(1, segment.length() - 1);
+				if (node.variable == null){
+					node.variable = new Node();
+				}
+				node = node.variable;
+			}
+			else {
+				if (node.children == null){
+					node.children = new HashMap<>();
+				}
+				Node child = node.children.get(segment);
+				if (child == null){
+					child = new Node();
+					node.children.put(segment, child);
+				}
+				node = child;
+			}
+		}
+		if (node.route >= 0){
+			throw new IllegalArgumentException("The pattern " + pattern + " is ambiguous with another route");
+		}
+		node.route = route;
+		node.variables = variables;
+		compiled = false;
+		return this;
+	}
+	
+	/**
+	 * Gets if the segment of a pattern is a variable, in the <code>{name}</code> form.
+	 */
+	static boolean isVariable(String segment) {
+		return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+	}
+	
+	/**
+	 * Matches the tokenId of the token against the patterns, setting the path parameters of the token when a pattern is matched.
+	 * 
+	 * @return The route of the matched pattern, or <code>-1</code> if no pattern matches the tokenId
+	 */
+	int match(URLToken token) {
+		if (!compiled){
+			root.compile();
+			compiled = true;
+		}
+		String id = token.getId();
+		List<String> segments = new ArrayList<>();
+		Node node = root;
+		int start = 0;
+		while (node != null){
+			int end = id.indexOf('/', start);
+			String segment = end < 0 ? id.substring(start) : id.substring(start, end);
+			segments.add(segment);
+			Node next = node.children == null ? null : node.children.get(segment);
+			if (next == null && !segment.isEmpty()){
+				next = node.variable;
+			}
+			node = next;
+			if (end < 0){
+				break;
+			}
+			start = end + 1;
+		}
+		if (node == null || node.route < 0){
+			return -1;
+		}
+		for (int i = 0; i < node.variables.length; i++) {
+			if (node.variables[i] != null){
+				token.setPathParameter(node.variables[i], segments.get(i));
+			}
+		}
+		return node.route;
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Insertion-ordered storage of the parameters of a {@link URLToken}. Keys and values are kept in parallel arrays,
+ * which are scanned linearly while the number of parameters is small. Above {@link #HASH_THRESHOLD} parameters, an index
+ * of the positions of the keys is kept as well.
+ * </p>
+ * <p>
+ * Most tokens have only a handful of parameters, so this avoids creating one entry object per parameter, as a
+ * LinkedHashMap would do.
+ * </p>
+ * <p>
+ * Each parameter can also hold the last typed value converted from it (for instance, by {@link URLToken#getParameterAsInt(String, int)}),
+ * which is discarded when the parameter changes.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+class TokenParameters {
+	
+	/**
+	 * The number of parameters above which the positions of the keys are indexed.
+	 */
+	static final int HASH_THRESHOLD = 8;
+	
+	private static final String[] EMPTY = new String[0];
+	private static final Object[] EMPTY_CONVERTED = new Object[0];
+	
+	private String[] keys = EMPTY;
+	private String[] values = EMPTY;
+	private Object[] converted = EMPTY_CONVERTED;
+	private int size;
+	
+	/**
+	 * Position of each key, only used when there are more than {@link #HASH_THRESHOLD} parameters.
+	 */
+	private Map<String, Integer> index;
+	
+	TokenParameters() {
+	}
+	
+	TokenParameters(TokenParameters source) {
+		this.size = source.size;
+		if (size > 0) {
+			this.keys = new String[size];
+			this.values = new String[size];
+			this.converted = new Object[size];
+			System.arraycopy(source.keys, 0, keys, 0, size);
+			System.arraycopy(source.values, 0, values, 0, size);
+			System.arraycopy(source.converted, 0, converted, 0, size);
+			if (source.index != null) {
+				this.index = new HashMap<>(source.index);
+			}
+		}
+	}
+	
+	int size() {
+		return size;
+	}
+	
+	boolean isEmpty() {
+		return size == 0;
+	}
+	
+	String keyAt(int position) {
+		return keys[position];
+	}
+	
+	String valueAt(int position) {
+		return values[position];
+	}
+	
+	/**
+	 * @return The last typed value converted from the parameter at the position, or <code>null</code> if there's none
+	 */
+	Object convertedAt(int position) {
+		return converted[position];
+	}
+	
+	void setConvertedAt(int position, Object value) {
+		converted[position] = value;
+	}
+	
+	int indexOf(String key) {
+		if (index != null) {
+			Integer position = index.get(key);
+			return position == null ? -1 : position;
+		}
+		for (int i = 0; i < size; i++) {
+			String k = keys[i];
+			if (k == key || (k != null && k.equals(key))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	String get(String key) {
+		int position = indexOf(key);
+		return position < 0 ? null : values[position];
+	}
+	
+	boolean containsKey(String key) {
+		return indexOf(key) >= 0;
+	}
+	
+	/**
+	 * Sets the value of a parameter. New parameters are added at the end, existing ones keep their position.
+	 * 
+	 * @return The previous value, or <code>null</code> if the parameter was not present
+	 */
+	String put(String key, String value) {
+		int position = indexOf(key);
+		if (position >= 0) {
+			String previous = values[position];
+			values[position] = value;
+			converted[position] = null;
+			return previous;
+		}
+		
+		if (size == keys.length) {
+			int capacity = size == 0 ? 4 : size * 2;
+			String[] newKeys = new String[capacity];
+			String[] newValues = new String[capacity];
+			Object[] newConverted = new Object[capacity];
+			System.arraycopy(keys, 0, newKeys, 0, size);
+			System.arraycopy(values, 0, newValues, 0, size);
+			System.arraycopy(converted, 0, newConverted, 0, size);
+			keys = newKeys;
+			values = newValues;
+			converted = newConverted;
+		}
+		keys[size] = key;
+		values[size] = value;
+		size++;
+		
+		if (index != null) {
+			index.put(key, size - 1);
+		}
+		else if (size > HASH_THRESHOLD) {
+			rebuildIndex();
+		}
+		return null;
+	}
+	
+	/**
+	 * Removes a parameter, keeping the order of the remaining ones.
+	 * 
+	 * @return The removed value, or <code>null</code> if the parameter was not present
+	 */
+	String remove(String key) {
+		int position = indexOf(key);
+		if (position < 0) {
+			return null;
+		}
+		String previous = values[position];
+		int moved = size - position - 1;
+		if (moved > 0) {
+			System.arraycopy(keys, position + 1, keys, position, moved);
+			System.arraycopy(values, position + 1, values, position, moved);
+			System.arraycopy(converted, position + 1, converted, position, moved);
+		}
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		converted[size] = null;
+		
+		if (size > HASH_THRESHOLD) {
+			rebuildIndex();
+		}
+		else {
+			index = null;
+		}
+		return previous;
+	}
+	
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			keys[i] = null;
+			values[i] = null;
+			converted[i] = null;
+		}
+		size = 0;
+		index = null;
+	}
+	
+	private void rebuildIndex() {
+		index = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			index.put(keys[i], i);
+		}
+	}
+
+}
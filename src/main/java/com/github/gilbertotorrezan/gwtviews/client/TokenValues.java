@@ -0,0 +1,186 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+/**
+ * Conversions of {@link URLToken} parameter values to numbers. The values are validated before being converted, 
+ * so invalid input never throws: it is reported by a <code>null</code> return instead. That matters in compiled
+ * JavaScript, where exceptions are expensive.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+final class TokenValues {
+	
+	private TokenValues() {}
+	
+	/**
+	 * Same grammar as {@link Integer#parseInt(String)}, with ASCII digits only.
+	 * 
+	 * @return The parsed value, or <code>null</code> if the value is not a valid int
+	 */
+	static Integer parseInt(String value) {
+		int length = value.length();
+		if (length == 0) {
+			return null;
+		}
+		int position = 0;
+		boolean negative = false;
+		char first = value.charAt(0);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			position++;
+			if (length == 1) {
+				return null;
+			}
+		}
+		
+		//accumulates negatively, since the negative range is larger than the positive one
+		int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+		int multiplyLimit = limit / 10;
+		int result = 0;
+		for (; position < length; position++) {
+			int digit = value.charAt(position) - '0';
+			if (digit < 0 || digit > 9 || result < multiplyLimit) {
+				return null;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return null;
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+	
+	/**
+	 * Same grammar as {@link Long#parseLong(String)}, with ASCII digits only.
+	 * 
+	 * @return The parsed value, or <code>null</code> if the value is not a valid long
+	 */
+	static Long parseLong(String value) {
+		int length = value.length();
+		if (length == 0) {
+			return null;
+		}
+		int position = 0;
+		boolean negative = false;
+		char first = value.charAt(0);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			position++;
+			if (length == 1) {
+				return null;
+			}
+		}
+		
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplyLimit = limit / 10;
+		long result = 0;
+		for (; position < length; position++) {
+			int digit = value.charAt(position) - '0';
+			if (digit < 0 || digit > 9 || result < multiplyLimit) {
+				return null;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return null;
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+	
+	/**
+	 * Accepts the decimal forms of {@link Double#parseDouble(String)}: optional surrounding whitespace and sign, 
+	 * <code>NaN</code>, <code>Infinity</code>, digits with an optional fraction and exponent, and an optional 
+	 * <code>d</code> or <code>f</code> suffix. Hexadecimal forms are not accepted.
+	 * 
+	 * @return The parsed value, or <code>null</code> if the value is not a valid double
+	 */
+	static Double parseDouble(String value) {
+		String trimmed = value.trim();
+		int length = trimmed.length();
+		int position = 0;
+		if (position < length && (trimmed.charAt(position) == '-' || trimmed.charAt(position) == '+')) {
+			position++;
+		}
+		if (trimmed.startsWith("NaN", position) || trimmed.startsWith("Infinity", position)) {
+			String rest = trimmed.substring(position);
+			if (!rest.equals("NaN") && !rest.equals("Infinity")) {
+				return null;
+			}
+			return Double.parseDouble(trimmed);
+		}
+		
+		int digits = 0;
+		while (position < length && isDigit(trimmed.charAt(position))) {
+			position++;
+			digits++;
+		}
+		if (position < length && trimmed.charAt(position) == '.') {
+			position++;
+			while (position < length && isDigit(trimmed.charAt(position))) {
+				position++;
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return null;
+		}
+		
+		if (position < length && (trimmed.charAt(position) == 'e' || trimmed.charAt(position) == 'E')) {
+			position++;
+			if (position < length && (trimmed.charAt(position) == '-' || trimmed.charAt(position) == '+')) {
+				position++;
+			}
+			int exponentDigits = 0;
+			while (position < length && isDigit(trimmed.charAt(position))) {
+				position++;
+				exponentDigits++;
+			}
+			if (exponentDigits == 0) {
+				return null;
+			}
+		}
+		
+		if (position < length) {
+			char suffix = trimmed.charAt(position);
+			if (suffix == 'd' || suffix == 'D' || suffix == 'f' || suffix == 'F') {
+				position++;
+			}
+		}
+		if (position != length) {
+			return null;
+		}
+		return Double.parseDouble(trimmed);
+	}
+	
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+}
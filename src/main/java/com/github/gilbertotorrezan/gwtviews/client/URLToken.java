@@ -24,10 +24,12 @@
  */
 package com.github.gilbertotorrezan.gwtviews.client;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 
 import com.google.gwt.place.shared.Place;
 import com.google.gwt.user.client.History;
@@ -48,10 +50,43 @@ import com.google.gwt.user.client.History;
 public class URLToken extends Place implements Cloneable {
 
 	private String id = "";
-	private Map<String, String> parameters = new LinkedHashMap<>();
+	private TokenParameters parameters = new TokenParameters();
+	
+	/**
+	 * Whether the parameters are shared with a copy of this token. Shared parameters are copied before any change.
+	 */
+	private boolean sharedParameters;
+	
+	/**
+	 * The token String whose parameters were not parsed yet, and the position where the parameters start.
+	 * The parameters are parsed only when they are first accessed, since navigation only needs the id.
+	 */
+	private String unparsedToken;
+	private int unparsedPosition;
+	
+	/**
+	 * The token String built by {@link #toString()} and its hash. Both are cleared whenever the id or the parameters change.
+	 */
+	private String canonicalToken;
+	private int canonicalHash;
+	
+	/**
+	 * The variables of the route pattern matched by the id, like <code>customers/{id}/orders</code>. They are part of the id, 
+	 * so they don't change the token String. <code>null</code> when there are none.
+	 */
+	private Map<String, String> pathParameters;
 
-	private enum TokenParseState {
-		PARSING_ID, PARSING_KEY, PARSING_VALUE, PARSING_COMPLEX_VALUE, PARSED_COMPLEX_VALUE;
+	/**
+	 * Characters that force a parameter value to be quoted when serialized, indexed by their code.
+	 */
+	private static final boolean[] QUOTED_CHARS = new boolean[128];
+	static {
+		QUOTED_CHARS['&'] = true;
+		QUOTED_CHARS['='] = true;
+		QUOTED_CHARS[' '] = true;
+		QUOTED_CHARS[':'] = true;
+		QUOTED_CHARS['#'] = true;
+		QUOTED_CHARS['?'] = true;
 	}
 
 	/**
@@ -73,107 +108,128 @@ public class URLToken extends Place implements Cloneable {
 	}
 	
 	/**
-	 * Clones a URLToken, copying the id and all parameters.
+	 * Clones a URLToken, copying the id and all parameters. The parameters are only 
+	 * copied when either token changes them.
 	 * 
 	 * @see #clone()
 	 */
 	public URLToken(URLToken source) {
 		this.id = source.id;
-		this.parameters.putAll(source.parameters);
+		this.parameters = source.parameters;
+		this.sharedParameters = true;
+		source.sharedParameters = true;
+		this.unparsedToken = source.unparsedToken;
+		this.unparsedPosition = source.unparsedPosition;
+		this.canonicalToken = source.canonicalToken;
+		this.canonicalHash = source.canonicalHash;
+		if (source.pathParameters != null) {
+			this.pathParameters = new HashMap<>(source.pathParameters);
+		}
 	}
 
 	/**
-	 * Sets the current token, causing it to parse the parameters and the tokenId.
+	 * Sets the current token, causing it to parse the parameters and the tokenId. The parameters are parsed only when they are
+	 * first accessed.
 	 * 
 	 * @param completeToken The History token to be parsed, in the form of: <pre>{@code tokenId&param1=value1&param2&param3='complex&value' }</pre>
 	 */
 	public void setToken(String completeToken) {
 		clearParameters();
 		id = "";
+		canonicalToken = null;
+		pathParameters = null;
 		
-		if (completeToken != null) {
-			StringBuilder builder = new StringBuilder();
-
-			char[] chs = completeToken.toCharArray();
-			String currentKey = null;
-			TokenParseState state = TokenParseState.PARSING_ID;
-			for (char ch : chs) {
-				switch (state) {
-				case PARSING_ID:
-					if (ch == '&') {
-						state = TokenParseState.PARSING_KEY;
-						id = builder.toString();
-						builder.delete(0, builder.length());
-					} else {
-						builder.append(ch);
-					}
-					break;
-				case PARSING_KEY:
-					if (ch == '=') {
-						state = TokenParseState.PARSING_VALUE;
-						currentKey = builder.toString();
-						if (!currentKey.isEmpty()) {
-							parameters.put(currentKey, "");
-							builder.delete(0, builder.length());
-						}
-					} else if (ch == '&') {
-						currentKey = builder.toString();
-						if (!currentKey.isEmpty()) {
-							parameters.put(currentKey, "");
-							builder.delete(0, builder.length());
-						}
-					} else {
-						builder.append(ch);
-					}
-					break;
-				case PARSING_VALUE:
-					if (ch == '\'') {
-						state = TokenParseState.PARSING_COMPLEX_VALUE;
-					} else if (ch == '&') {
-						state = TokenParseState.PARSING_KEY;
-						parameters.put(currentKey, builder.toString());
-						builder.delete(0, builder.length());
-					} else {
-						builder.append(ch);
-					}
-					break;
-				case PARSING_COMPLEX_VALUE:
-					if (ch == '\'') {
-						state = TokenParseState.PARSED_COMPLEX_VALUE;
-						parameters.put(currentKey, builder.toString());
-						builder.delete(0, builder.length());
-					} else {
-						builder.append(ch);
-					}
+		if (completeToken == null) {
+			return;
+		}
+		
+		int length = completeToken.length();
+		int position = completeToken.indexOf('&');
+		if (position < 0) {
+			id = completeToken;
+			return;
+		}
+		id = completeToken.substring(0, position);
+		if (position + 1 < length) {
+			unparsedToken = completeToken;
+			unparsedPosition = position + 1;
+		}
+	}
+	
+	private void ensureParsed() {
+		if (unparsedToken != null) {
+			String completeToken = unparsedToken;
+			unparsedToken = null;
+			ensureOwnParameters();
+			parseParameters(completeToken, unparsedPosition);
+		}
+	}
+	
+	private void parseParameters(String completeToken, int position) {
+		int length = completeToken.length();
+		while (position < length) {
+			//the key ends at the first '=' or '&'
+			int keyEnd = position;
+			char ch = 0;
+			while (keyEnd < length) {
+				ch = completeToken.charAt(keyEnd);
+				if (ch == '=' || ch == '&') {
 					break;
-				case PARSED_COMPLEX_VALUE:
-					if (ch == '&') {
-						state = TokenParseState.PARSING_KEY;
-					}
+				}
+				keyEnd++;
+			}
+			String key = completeToken.substring(position, keyEnd);
+			if (!key.isEmpty()) {
+				parameters.put(key, "");
+			}
+			if (keyEnd == length || ch == '&') {
+				position = keyEnd + 1;
+				continue;
+			}
+			
+			//the value ends at the first '&', unless a quote starts a complex value
+			int valueStart = keyEnd + 1;
+			int valueEnd = valueStart;
+			ch = 0;
+			while (valueEnd < length) {
+				ch = completeToken.charAt(valueEnd);
+				if (ch == '\'' || ch == '&') {
 					break;
 				}
+				valueEnd++;
 			}
-
-			switch (state) {
-			case PARSING_ID:
-				id = builder.toString();
-				break;
-			case PARSING_KEY:
-				currentKey = builder.toString();
-				if (!currentKey.isEmpty()) {
-					parameters.put(currentKey, "");
+			if (valueEnd == length) {
+				String value = completeToken.substring(valueStart, length);
+				if (!value.isEmpty()) {
+					parameters.put(key, value);
 				}
-				break;
-			case PARSING_COMPLEX_VALUE:
-			case PARSING_VALUE:
-				String value = builder.toString();
-				if (!value.isEmpty() && currentKey != null) {
-					parameters.put(currentKey, value);
+				return;
+			}
+			if (ch == '&') {
+				parameters.put(key, completeToken.substring(valueStart, valueEnd));
+				position = valueEnd + 1;
+				continue;
+			}
+			
+			//complex value: everything until the closing quote, including any text before the opening one
+			String prefix = completeToken.substring(valueStart, valueEnd);
+			int closingQuote = completeToken.indexOf('\'', valueEnd + 1);
+			if (closingQuote < 0) {
+				String value = prefix + completeToken.substring(valueEnd + 1);
+				if (!value.isEmpty()) {
+					parameters.put(key, value);
 				}
-				break;
-			default:
-				break;
+				return;
+			}
+			String complexValue = completeToken.substring(valueEnd + 1, closingQuote);
+			parameters.put(key, prefix.isEmpty() ? complexValue : prefix + complexValue);
+			
+			//anything between the closing quote and the next '&' is ignored
+			int next = completeToken.indexOf('&', closingQuote + 1);
+			if (next < 0) {
+				return;
 			}
+			position = next + 1;
 		}
 	}
 
@@ -186,6 +242,7 @@ public class URLToken extends Place implements Cloneable {
 	 * When the token is something like <pre>{@code tokenId&param1&param2 }</pre> with a name without a explicit value, an empty String is returned. 
 	 */
 	public String getParameter(String name) {
+		ensureParsed();
 		return parameters.get(name);
 	}
 	
@@ -199,6 +256,7 @@ public class URLToken extends Place implements Cloneable {
 	 * When the token is something like <pre>{@code tokenId&param1&param2 }</pre> with a name without a explicit value, an empty String is returned. 
 	 */
 	public String getParameter(String name, String defaultValue) {
+		ensureParsed();
 		String value = parameters.get(name);
 		if (value == null){
 			value = defaultValue;
@@ -216,15 +274,184 @@ public class URLToken extends Place implements Cloneable {
 	 * When the token is something like <pre>{@code tokenId&param1&param2 }</pre> with a name without a explicit value, the default value is returned. 
 	 */
 	public int getParameterAsInt(String name, int defaultValue){
-		String value = parameters.get(name);
-		if (value == null || value.isEmpty()){
+		ensureParsed();
+		int position = parameters.indexOf(name);
+		if (position < 0){
 			return defaultValue;
 		}
-		try {
-			return Integer.parseInt(value);
-		} catch (Exception e) {
+		Object converted = parameters.convertedAt(position);
+		if (!(converted instanceof Integer)){
+			converted = TokenValues.parseInt(parameters.valueAt(position));
+			if (converted == null){
+				return defaultValue;
+			}
+			parameters.setConvertedAt(position, converted);
+		}
+		return (Integer) converted;
+	}
+	
+	/**
+	 * Gets a long parameter extracted from the History token.
+	 * For example, if the token is: <pre>{@code tokenId&param1=1 }</pre>the call to <code>getParameterAsLong("param1", 0)</code> will return <code>1</code>.
+	 * 
+	 * @param name The name of the parameter
+	 * @param defaultValue The value to be returned when the parameter is <code>null</code> or not parseable to long
+	 * @return The long value of the parameter, or <code>defaultValue</code> if not parseable.
+	 * When the token is something like <pre>{@code tokenId&param1&param2 }</pre> with a name without a explicit value, the default value is returned.
+	 * 
+	 * @since v.1.4.1 
+	 */
+	public long getParameterAsLong(String name, long defaultValue){
+		Long value = getLongParameter(name);
+		return value == null ? defaultValue : value;
+	}
+	
+	/**
+	 * Gets a Date parameter extracted from the History token. The value of the parameter must be the number of milliseconds
+	 * since the epoch, as returned by {@link Date#getTime()}.
+	 * For example, if the token is: <pre>{@code tokenId&param1=1420070400000 }</pre>the call to <code>getParameterAsDate("param1", null)</code> 
+	 * will return the Date of the first instant of 2015, UTC.
+	 * 
+	 * @param name The name of the parameter
+	 * @param defaultValue The value to be returned when the parameter is <code>null</code> or not parseable to long
+	 * @return A new Date with the value of the parameter, or <code>defaultValue</code> if not parseable.
+	 * 
+	 * @since v.1.4.1 
+	 */
+	public Date getParameterAsDate(String name, Date defaultValue){
+		Long value = getLongParameter(name);
+		return value == null ? defaultValue : new Date(value);
+	}
+	
+	private Long getLongParameter(String name){
+		ensureParsed();
+		int position = parameters.indexOf(name);
+		if (position < 0){
+			return null;
+		}
+		Object converted = parameters.convertedAt(position);
+		if (!(converted instanceof Long)){
+			converted = TokenValues.parseLong(parameters.valueAt(position));
+			if (converted == null){
+				return null;
+			}
+			parameters.setConvertedAt(position, converted);
+		}
+		return (Long) converted;
+	}
+	
+	/**
+	 * Gets an enum parameter extracted from the History token. The value must be the exact name of the enum constant.
+	 * For example, if the token is: <pre>{@code tokenId&param1=SAME_URL }</pre>the call to 
+	 * <code>getParameterAsEnum("param1", CachePolicy.class, CachePolicy.NEVER)</code> will return <code>CachePolicy.SAME_URL</code>.
+	 * 
+	 * @param name The name of the parameter
+	 * @param enumType The class literal of the enum
+	 * @param defaultValue The value to be returned when the parameter is <code>null</code> or doesn't match any constant of the enum
+	 * @return The enum constant named by the value of the parameter, or <code>defaultValue</code> if there's none.
+	 * 
+	 * @since v.1.4.1 
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Enum<E>> E getParameterAsEnum(String name, Class<E> enumType, E defaultValue){
+		ensureParsed();
+		int position = parameters.indexOf(name);
+		if (position < 0){
+			return defaultValue;
+		}
+		Object converted = parameters.convertedAt(position);
+		if (converted instanceof Enum && ((Enum<?>) converted).getDeclaringClass() == enumType){
+			return (E) converted;
+		}
+		String value = parameters.valueAt(position);
+		for (E constant : enumType.getEnumConstants()) {
+			if (constant.name().equals(value)){
+				parameters.setConvertedAt(position, constant);
+				return constant;
+			}
+		}
+		return defaultValue;
+	}
+	
+	/**
+	 * Gets a list parameter extracted from the History token. The items of the list are separated by commas.
+	 * For example, if the token is: <pre>{@code tokenId&param1=a,b,c }</pre>the call to <code>getParameterAsList("param1")</code> will return
+	 * a list with <code>a</code>, <code>b</code> and <code>c</code>. A backslash escapes the next character, so items can contain 
+	 * commas: <code>a\,b</code> is a single item, and a lone backslash is a single empty item 
+	 * (see {@link #appendListParameter(StringBuilder, String, List)}).
+	 * 
+	 * @param name The name of the parameter
+	 * @return An unmodifiable list with the items of the parameter. The list is empty when the parameter is not present or has an empty value.
+	 * 
+	 * @since v.1.4.1 
+	 */
+	@SuppressWarnings("unchecked")
+	public List<String> getParameterAsList(String name){
+		ensureParsed();
+		int position = parameters.indexOf(name);
+		if (position < 0){
+			return Collections.emptyList();
+		}
+		Object converted = parameters.convertedAt(position);
+		if (!(converted instanceof List)){
+			String value = parameters.valueAt(position);
+			List<String> items = new ArrayList<>();
+			if (value.indexOf('\\') >= 0){
+				splitEscaped(value, items);
+			}
+			else if (!value.isEmpty()){
+				int start = 0;
+				int comma;
+				while ((comma = value.indexOf(',', start)) >= 0) {
+					items.add(value.substring(start, comma));
+					start = comma + 1;
+				}
+				items.add(value.substring(start));
+			}
+			converted = Collections.unmodifiableList(items);
+			parameters.setConvertedAt(position, converted);
+		}
+		return (List<String>) converted;
+	}
+	
+	private static void splitEscaped(String value, List<String> items) {
+		StringBuilder item = new StringBuilder();
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char ch = value.charAt(i);
+			if (ch == '\\'){
+				//a trailing backslash escapes nothing: a lone one is a list with a single empty item
+				if (i + 1 < length){
+					item.append(value.charAt(++i));
+				}
+			}
+			else if (ch == ','){
+				items.add(item.toString());
+				item.setLength(0);
+			}
+			else {
+				item.append(ch);
+			}
+		}
+		items.add(item.toString());
+	}
+	
+	/**
+	 * Gets a flag parameter extracted from the History token. A flag without value, like <code>param1</code> at 
+	 * <pre>{@code tokenId&param1 }</pre>is <code>true</code>. Otherwise the value is parsed like at {@link #getParameterAsBoolean(String)}.
+	 * 
+	 * @param name The name of the parameter
+	 * @param defaultValue The value to be returned when the parameter is not present
+	 * @return The value of the flag, or <code>defaultValue</code> if not present
+	 * 
+	 * @since v.1.4.1
+	 */
+	public boolean getParameterAsFlag(String name, boolean defaultValue){
+		ensureParsed();
+		String value = parameters.get(name);
+		if (value == null){
 			return defaultValue;
 		}
+		return value.isEmpty() || Boolean.parseBoolean(value);
 	}
 	
 	/**
@@ -235,6 +462,7 @@ public class URLToken extends Place implements Cloneable {
 	 * @return <code>true</code> if the value is equals ignoring case to the String "true", <code>false</code> otherwise 
 	 */
 	public boolean getParameterAsBoolean(String name){
+		ensureParsed();
 		String value = parameters.get(name);
 		return Boolean.parseBoolean(value);
 	}
@@ -249,15 +477,20 @@ public class URLToken extends Place implements Cloneable {
 	 * When the token is something like <pre>{@code tokenId&param1&param2 }</pre> with a name without a explicit value, the default value is returned. 
 	 */
 	public double getParameterAsDouble(String name, double defaultValue){
-		String value = parameters.get(name);
-		if (value == null || value.isEmpty()){
+		ensureParsed();
+		int position = parameters.indexOf(name);
+		if (position < 0){
 			return defaultValue;
 		}
-		try {
-			return Double.parseDouble(value);
-		} catch (Exception e) {
-			return defaultValue;
+		Object converted = parameters.convertedAt(position);
+		if (!(converted instanceof Double)){
+			converted = TokenValues.parseDouble(parameters.valueAt(position));
+			if (converted == null){
+				return defaultValue;
+			}
+			parameters.setConvertedAt(position, converted);
 		}
+		return (Double) converted;
 	}
 
 	/**
@@ -273,6 +506,9 @@ public class URLToken extends Place implements Cloneable {
 		if (value == null){
 			return removeParameter(name);
 		}
+		ensureParsed();
+		canonicalToken = null;
+		ensureOwnParameters();
 		return parameters.put(name, value);
 	}
 
@@ -284,6 +520,12 @@ public class URLToken extends Place implements Cloneable {
 	 * wasn't an associated value to the name.
 	 */
 	public String removeParameter(String name) {
+		ensureParsed();
+		if (!parameters.containsKey(name)) {
+			return null;
+		}
+		canonicalToken = null;
+		ensureOwnParameters();
 		return parameters.remove(name);
 	}
 	
@@ -291,7 +533,42 @@ public class URLToken extends Place implements Cloneable {
 	 * Clears all the parameters (but not the tokenId).
 	 */
 	public void clearParameters(){
-		parameters.clear();
+		canonicalToken = null;
+		unparsedToken = null;
+		if (sharedParameters) {
+			parameters = new TokenParameters();
+			sharedParameters = false;
+		}
+		else {
+			parameters.clear();
+		}
+	}
+	
+	/**
+	 * Gets the names of all the parameters of the URL, in the order they appear.
+	 * 
+	 * @return An unmodifiable list with the names of the parameters
+	 * 
+	 * @since v.1.4.1
+	 */
+	public List<String> getParameterNames(){
+		ensureParsed();
+		int size = parameters.size();
+		if (size == 0) {
+			return Collections.emptyList();
+		}
+		List<String> names = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			names.add(parameters.keyAt(i));
+		}
+		return Collections.unmodifiableList(names);
+	}
+	
+	private void ensureOwnParameters() {
+		if (sharedParameters) {
+			parameters = new TokenParameters(parameters);
+			sharedParameters = false;
+		}
 	}
 	
 	/**
@@ -301,9 +578,33 @@ public class URLToken extends Place implements Cloneable {
 	 * @return <code>true</code> if the parameter is present, even with an empty value, <code>false</code> otherwise
 	 */
 	public boolean containsParameter(String name){
+		ensureParsed();
 		return parameters.containsKey(name);
 	}
 
+	/**
+	 * Gets a variable of the route pattern matched by the tokenId. For example, when the token <code>customers/123/orders</code>
+	 * is shown by a {@link View} with the value <code>customers/{id}/orders</code>, the path parameter <code>id</code> is <code>123</code>.
+	 * 
+	 * @param name The name of the variable at the {@link View#value()}
+	 * @return The value of the variable, or <code>null</code> if the tokenId didn't match a pattern with the variable
+	 * 
+	 * @since v.1.4.1
+	 */
+	public String getPathParameter(String name) {
+		return pathParameters == null ? null : pathParameters.get(name);
+	}
+	
+	/**
+	 * Called by the framework when the tokenId matches a route pattern.
+	 */
+	void setPathParameter(String name, String value) {
+		if (pathParameters == null) {
+			pathParameters = new HashMap<>();
+		}
+		pathParameters.put(name, value);
+	}
+	
 	/**
 	 * Gets the tokenId of the URL. The tokenId is the value associated with a {@link View#value()}.
 	 */
@@ -319,6 +620,8 @@ public class URLToken extends Place implements Cloneable {
 			id = "";
 		}
 		this.id = id;
+		canonicalToken = null;
+		pathParameters = null;
 	}
 	
 	/**
@@ -355,30 +658,113 @@ public class URLToken extends Place implements Cloneable {
 	 */
 	@Override
 	public String toString() {
-		StringBuilder builder = new StringBuilder(id);
+		if (canonicalToken == null) {
+			canonicalToken = buildToken();
+			canonicalHash = canonicalToken.hashCode();
+		}
+		return canonicalToken;
+	}
+	
+	private String buildToken() {
+		ensureParsed();
+		if (parameters.isEmpty()) {
+			return id;
+		}
+		
+		int size = parameters.size();
+		StringBuilder builder = new StringBuilder(id.length() + size * 16);
+		builder.append(id);
 
-		Set<Entry<String, String>> entrySet = parameters.entrySet();
-		for (Entry<String, String> entry : entrySet) {
-			builder.append("&").append(entry.getKey());
-			String v = entry.getValue();
-			if (v != null && !v.isEmpty()) {
-				builder.append("=");
-				if (v.contains("&") || v.contains("=") || v.contains(" ") || v.contains(":") || v.contains("#") || v.contains("?")) {
-					builder.append("'").append(v).append("'");
-				} else {
-					builder.append(v);
-				}
-			}
+		for (int i = 0; i < size; i++) {
+			appendParameter(builder, parameters.keyAt(i), parameters.valueAt(i));
 		}
 
 		return builder.toString();
 	}
+	
+	/**
+	 * Appends a parameter to a token being built, quoting the value when needed. Used by the generated {@link ViewParameters}
+	 * to serialize parameters in the same format as {@link #toString()}.
+	 * 
+	 * @param builder The token being built
+	 * @param name The name of the parameter
+	 * @param value The value of the parameter. Only the name is appended when the value is <code>null</code> or empty
+	 * @return The same builder, for method chaining
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static StringBuilder appendParameter(StringBuilder builder, String name, String value) {
+		builder.append('&').append(name);
+		if (value != null && !value.isEmpty()) {
+			builder.append('=');
+			if (needsQuotes(value)) {
+				builder.append('\'').append(value).append('\'');
+			} else {
+				builder.append(value);
+			}
+		}
+		return builder;
+	}
+	
+	/**
+	 * Appends a list parameter to a token being built, escaping the commas and backslashes of the items, so 
+	 * {@link #getParameterAsList(String)} reads back the same items. A list with a single empty item is written as a lone
+	 * backslash, since an empty value is an empty list. Used by the generated {@link ViewParameters}.
+	 * 
+	 * @param builder The token being built
+	 * @param name The name of the parameter
+	 * @param items The items of the list
+	 * @return The same builder, for method chaining
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static StringBuilder appendListParameter(StringBuilder builder, String name, List<String> items) {
+		if (items.size() == 1 && items.get(0).isEmpty()){
+			//an empty value is an empty list
+			return appendParameter(builder, name, "\\");
+		}
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < items.size(); i++) {
+			if (i > 0) {
+				value.append(',');
+			}
+			String item = items.get(i);
+			for (int j = 0, length = item.length(); j < length; j++) {
+				char ch = item.charAt(j);
+				if (ch == ',' || ch == '\\') {
+					value.append('\\');
+				}
+				value.append(ch);
+			}
+		}
+		return appendParameter(builder, name, value.toString());
+	}
+	
+	private static boolean needsQuotes(String value) {
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char ch = value.charAt(i);
+			if (ch < QUOTED_CHARS.length && QUOTED_CHARS[ch]) {
+				return true;
+			}
+		}
+		return false;
+	}
 
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj) {
 			return true;
 		}
+		if (obj instanceof URLToken) {
+			String token = this.toString();
+			URLToken other = (URLToken) obj;
+			String otherToken = other.toString();
+			//when both tokens are in their memoized form, different hashes are enough to tell them apart
+			if (token == this.canonicalToken && otherToken == other.canonicalToken && canonicalHash != other.canonicalHash) {
+				return false;
+			}
+			return token.equals(otherToken);
+		}
 		if (obj instanceof Place) {
 			return this.toString().equals(obj.toString());
 		}
@@ -390,7 +776,11 @@ public class URLToken extends Place implements Cloneable {
 
 	@Override
 	public int hashCode() {
-		return toString().hashCode();
+		String token = toString();
+		if (token == canonicalToken) {
+			return canonicalHash;
+		}
+		return token.hashCode();
 	}
 	
 	/**
@@ -47,6 +47,10 @@ public @interface View {
 	
 	/**
 	 * The unique URL token that points to this View. 
+	 * <p>
+	 * Since v.1.4.1, it can be a route pattern with path parameters taking whole segments, like <code>customers/{id}/orders</code>.
+	 * The values of the path parameters are available with {@link URLToken#getPathParameter(String)}.
+	 * </p>
 	 * 
 	 * @see History#newItem(String) 
 	 */
@@ -66,6 +70,62 @@ public @interface View {
 	 * Note that this property has no effect when a {@link #customPresenter()} is defined.
 	 */
 	CachePolicy cache() default CachePolicy.SAME_URL;
+	
+	/**
+	 * The maximum number of instances of this View kept at the cache when using the {@link CachePolicy#SAME_URL} policy.
+	 * When the limit is reached, the least recently used instance that is not attached to the page is evicted. Defaults to 
+	 * <code>0</code> (no limit).
+	 * 
+	 * @see DisposableView
+	 * @since v.1.4.1
+	 */
+	int maxEntries() default 0;
+	
+	/**
+	 * The time, in seconds, an instance of this View is kept at the cache after its last access when using the 
+	 * {@link CachePolicy#SAME_URL} policy. Instances attached to the page only expire after they leave it. Defaults to 
+	 * <code>0</code> (never expires).
+	 * 
+	 * @see DisposableView
+	 * @since v.1.4.1
+	 */
+	int expireAfterAccess() default 0;
+	
+	/**
+	 * The only parameters used to decide if a cached instance of this View can be reused when using the {@link CachePolicy#SAME_URL} policy.
+	 * Defaults to all the parameters.
+	 * 
+	 * @see CacheKeyRule
+	 * @since v.1.4.1
+	 */
+	String[] cacheKeyParameters() default {};
+	
+	/**
+	 * Parameters ignored when deciding if a cached instance of this View can be reused when using the {@link CachePolicy#SAME_URL} policy,
+	 * such as <code>utm_source</code> or timestamps.
+	 * 
+	 * @see CacheKeyRule
+	 * @since v.1.4.1
+	 */
+	String[] cacheKeyIgnoredParameters() default {};
+	
+	/**
+	 * Defines if the order of the parameters is ignored when deciding if a cached instance of this View can be reused when using the 
+	 * {@link CachePolicy#SAME_URL} policy. Defaults to <code>false</code>.
+	 * 
+	 * @see CacheKeyRule
+	 * @since v.1.4.1
+	 */
+	boolean cacheKeyIgnoreOrder() default false;
+	
+	/**
+	 * Defines if parameters without values are ignored when deciding if a cached instance of this View can be reused when using the 
+	 * {@link CachePolicy#SAME_URL} policy. Defaults to <code>false</code>.
+	 * 
+	 * @see CacheKeyRule
+	 * @since v.1.4.1
+	 */
+	boolean cacheKeyDropEmpty() default false;
 
 	/**
 	 * The defaultView is the first View showed by the application, when the {@link NavigationManager} is started.
@@ -127,4 +187,47 @@ public @interface View {
 	 */
 	String injectorMethod() default "";
 	
+	/**
+	 * Defines the typed parameters of this View. The implementation of the interface is generated at compile time, 
+	 * and errors in the declaration of the parameters are reported by the compiler. Views whose {@link #value()} is a route 
+	 * pattern cannot declare parameters.
+	 * 
+	 * @see ViewParameters
+	 * @since v.1.4.1
+	 */
+	Class<? extends ViewParameters> parameters() default ViewParameters.class;
+	
+	/**
+	 * Defines the Views the user is likely to navigate to from this View. Their code is downloaded when the browser is idle after 
+	 * this View is shown, so the next navigation doesn't wait for the download. The Views are not created.
+	 * 
+	 * @see ViewPrefetcher
+	 * @since v.1.4.1
+	 */
+	Class<?>[] prefetch() default {};
+	
+	/**
+	 * Defines if this View is created when the browser is idle after the application starts, using the {@link #value()} as the token 
+	 * (without parameters). The first navigation to the View then only attaches it to the page. Has no effect with the 
+	 * {@link CachePolicy#NEVER} policy. Only public Views can be preloaded at the start: the compilation fails otherwise. 
+	 * Defaults to <code>false</code>.
+	 * <p>
+	 * With a {@link #customPresenter()}, the {@link #cache()} property decides if the View is preloaded: the <code>getView</code>
+	 * of the Presenter is called ahead of time, so use {@link CachePolicy#NEVER} when the Presenter doesn't keep its Views.
+	 * </p>
+	 * 
+	 * @see NavigationManager#preload(String)
+	 * @since v.1.4.1
+	 */
+	boolean preload() default false;
+	
+	/**
+	 * Defines the group of Views whose code is downloaded together, in a single fragment. Use it for Views usually visited in 
+	 * sequence, like the steps of a checkout, so each step doesn't wait for its own download. Views without a group (the default)
+	 * have their own fragments.
+	 * 
+	 * @since v.1.4.1
+	 */
+	String fragmentGroup() default "";
+	
 }
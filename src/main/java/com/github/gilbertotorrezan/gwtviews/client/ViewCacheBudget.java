@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.gilbertotorrezan.gwtviews.client.IdleScheduler.IdleCommand;
+import com.google.gwt.core.client.GWT;
+
+/**
+ * Limits the total number of {@link View}s cached by all the {@link CachedPresenter}s of the application, including the
+ * generated Presenters of the {@link CachePolicy#SAME_URL} and {@link CachePolicy#ALWAYS} policies. Every CachedPresenter
+ * registers its cached Views here, and when the budget is exceeded the globally least recently used Views are evicted from their
+ * Presenters.
+ * <p>
+ * The eviction runs when the browser is idle (using <code>requestIdleCallback</code> when available), so it never competes with
+ * the rendering of the View being shown. Views that are attached to the page, like the View being shown, are never evicted. 
+ * The hidden Views kept by a {@link ViewStackPanel} can be evicted, and are removed from the stack.
+ * </p>
+ * <p>
+ * The budget is disabled by default, so the caches are only limited by the {@link View#maxEntries()} of each View. To enable it,
+ * set the maximum number of Views at the startup of the application, or use {@link #getDefaultMaxViews()} to follow the
+ * <code>navigator.deviceMemory</code> of the browser, so devices with less memory keep fewer Views:
+ * </p>
+ * <pre>
+ * ViewCacheBudget.get().setMaxViews(ViewCacheBudget.getDefaultMaxViews());
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ * 
+ * @see View#maxEntries()
+ */
+public class ViewCacheBudget {
+	
+	/**
+	 * The suggested budget used when the device memory is unknown.
+	 */
+	public static final int DEFAULT_MAX_VIEWS = 100;
+	
+	/**
+	 * The number of Views allowed for each gigabyte of device memory.
+	 */
+	public static final int VIEWS_PER_GIGABYTE = 25;
+	
+	/**
+	 * The minimum suggested budget, used by devices with very little memory.
+	 */
+	public static final int MIN_DEFAULT_MAX_VIEWS = 10;
+	
+	private static ViewCacheBudget instance;
+	
+	private static final class CachedView {
+		
+		private final CachedPresenter<?> presenter;
+		private final String token;
+		
+		public CachedView(CachedPresenter<?> presenter, String token) {
+			this.presenter = presenter;
+			this.token = token;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(presenter) + token.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj){
+				return true;
+			}
+			if (!(obj instanceof CachedView)){
+				return false;
+			}
+			CachedView other = (CachedView) obj;
+			return presenter == other.presenter && token.equals(other.token);
+		}
+	}
+	
+	//access ordered: the least recently used View is always at the head
+	private final Map<CachedView, Boolean> views = new LinkedHashMap<>(16, 0.75f, true);
+	private int maxViews;
+	private boolean evictionScheduled;
+	
+	/**
+	 * Gets the budget shared by all the {@link CachedPresenter}s of the application. The shared budget has no limit until
+	 * {@link #setMaxViews(int)} is called.
+	 */
+	public static ViewCacheBudget get() {
+		if (instance == null){
+			instance = new ViewCacheBudget(0);
+		}
+		return instance;
+	}
+	
+	/**
+	 * Gets a suggested budget for the current device, based on <code>navigator.deviceMemory</code>. The budget is not applied
+	 * automatically: pass the result to {@link #setMaxViews(int)} to use it.
+	 */
+	public static int getDefaultMaxViews() {
+		double deviceMemory = GWT.isClient() ? getDeviceMemory() : 0;
+		if (deviceMemory <= 0){
+			return DEFAULT_MAX_VIEWS;
+		}
+		return Math.max(MIN_DEFAULT_MAX_VIEWS, (int) (deviceMemory * VIEWS_PER_GIGABYTE));
+	}
+	
+	/**
+	 * Creates a new budget. Use {@link #get()} to get the budget shared by the generated Presenters.
+	 * 
+	 * @param maxViews The maximum number of cached Views. Use <code>0</code> for no limit
+	 */
+	public ViewCacheBudget(int maxViews) {
+		setMaxViews(maxViews);
+	}
+	
+	/**
+	 * Gets the maximum number of Views cached by all the Presenters together.
+	 */
+	public int getMaxViews() {
+		return maxViews;
+	}
+	
+	/**
+	 * Sets the maximum number of Views cached by all the Presenters together. Views over the new budget are evicted when the 
+	 * browser is idle.
+	 * 
+	 * @param maxViews The maximum number of cached Views. Use <code>0</code> for no limit
+	 */
+	public void setMaxViews(int maxViews) {
+		if (maxViews < 0){
+			throw new IllegalArgumentException("maxViews must not be negative: " + maxViews);
+		}
+		this.maxViews = maxViews;
+		checkBudget();
+	}
+	
+	/**
+	 * Gets the number of Views currently cached by all the Presenters together.
+	 */
+	public int getSize() {
+		return views.size();
+	}
+	
+	/**
+	 * Called by the {@link CachedPresenter} when a cached View is accessed.
+	 */
+	void touch(CachedPresenter<?> presenter, String token) {
+		views.put(new CachedView(presenter, token), Boolean.TRUE);
+		checkBudget();
+	}
+	
+	/**
+	 * Called by the {@link CachedPresenter} when a View is removed from its cache.
+	 */
+	void remove(CachedPresenter<?> presenter, String token) {
+		views.remove(new CachedView(presenter, token));
+	}
+	
+	private void checkBudget() {
+		if (maxViews > 0 && views.size() > maxViews && !evictionScheduled){
+			evictionScheduled = true;
+			scheduleEviction();
+		}
+	}
+	
+	/**
+	 * Schedules the eviction of the Views over the budget. Outside of the browser (like in unit tests), the Views
+	 * are evicted right away.
+	 */
+	protected void scheduleEviction() {
+		IdleScheduler.schedule(new IdleCommand() {
+			@Override
+			public void execute(double timeRemaining) {
+				evict(timeRemaining);
+			}
+		});
+	}
+	
+	/**
+	 * Evicts the least recently used Views until the budget is respected or the time runs out. Views attached to the page
+	 * are skipped, and the most recently used View (the one being shown, even if not attached yet) is never evicted.
+	 * 
+	 * @param timeRemaining The time, in milliseconds, that can be spent evicting Views
+	 */
+	protected void evict(double timeRemaining) {
+		evictionScheduled = false;
+		if (maxViews == 0 || views.size() <= maxViews){
+			return;
+		}
+		double deadline = System.currentTimeMillis() + (timeRemaining > 0 ? timeRemaining : IdleScheduler.DEFAULT_TIME_SLICE);
+		//the Presenters can change the budget when notified, so the candidates are copied before the evictions
+		List<CachedView> candidates = new ArrayList<>(views.keySet());
+		for (CachedView candidate : candidates.subList(0, candidates.size() - 1)) {
+			if (maxViews == 0 || views.size() <= maxViews){
+				return;
+			}
+			if (System.currentTimeMillis() >= deadline){
+				//continues in the next idle period
+				checkBudget();
+				return;
+			}
+			if (views.containsKey(candidate) && candidate.presenter.evict(candidate.token)){
+				views.remove(candidate);
+			}
+		}
+		//the remaining Views are all attached, so they are checked again only when another View is cached
+	}
+	
+	private static native double getDeviceMemory() /*-{
+		var navigator = $wnd.navigator;
+		return navigator && navigator.deviceMemory ? navigator.deviceMemory : 0;
+	}-*/;
+
+}
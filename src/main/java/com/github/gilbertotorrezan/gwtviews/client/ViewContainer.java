@@ -72,5 +72,14 @@ public @interface ViewContainer {
 	 * there's more than one method that returns this ViewContainer type.
 	 */
 	String injectorMethod() default "";
+	
+	/**
+	 * Defines if the code of this ViewContainer is part of the initial download of the application. By default, the ViewContainer 
+	 * has its own code fragment, downloaded in parallel with the fragment of the first {@link View} shown inside it.
+	 * Use <code>true</code> for a ViewContainer shown by most of the Views, so no navigation waits for it.
+	 * 
+	 * @since v.1.4.1
+	 */
+	boolean initialDownload() default false;
 
 }
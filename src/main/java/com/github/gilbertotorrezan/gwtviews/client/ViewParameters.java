@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import com.google.gwt.core.client.GWT;
+
+/**
+ * <p>
+ * Typed schema of the parameters of a {@link View}. Extend this interface with getters (and optionally setters) for each
+ * parameter, and point to it at {@link View#parameters()}. The implementation is generated at compile time, with a field
+ * for each parameter and direct parsing and serialization code:
+ * </p>
+ * <pre>{@code
+ * @View(value = "orders", parameters = OrdersView.Params.class)
+ * public class OrdersView extends Composite {
+ * 	public interface Params extends ViewParameters {
+ * 		int getPage();
+ * 		void setPage(int page);
+ * 		
+ * 		@Parameter("q")
+ * 		String getQuery();
+ * 		void setQuery(String query);
+ * 	}
+ * }
+ * 
+ * OrdersView.Params params = GWT.create(OrdersView.Params.class);
+ * params.readFrom(token);
+ * params.setPage(params.getPage() + 1);
+ * params.toToken().go(); //goes to "orders&page=2&q=..."
+ * }</pre>
+ * <p>
+ * The supported parameter types are <code>String</code>, <code>int</code>, <code>long</code>, <code>double</code>, 
+ * <code>boolean</code>, enums, <code>Date</code> (serialized as milliseconds since the epoch) and <code>List&lt;String&gt;</code> 
+ * (serialized as comma-separated values, with commas inside the items escaped by a backslash). A <code>boolean</code> parameter
+ * present without a value, like <code>&amp;flag</code>, is <code>true</code>. Any other type or method is reported as an error at compile time. 
+ * </p>
+ * <p>
+ * Parameters with their default value are not written to the token.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ * @see Parameter
+ * @see GWT#create(Class)
+ */
+public interface ViewParameters {
+	
+	/**
+	 * Reads all the parameters from the token. Parameters that are missing or can't be converted to their type
+	 * get their default values.
+	 * 
+	 * @param token The token to be read, usually the one passed to {@link Presenter#getView(URLToken)}
+	 */
+	void readFrom(URLToken token);
+	
+	/**
+	 * Creates a new {@link URLToken} pointing to the {@link View}, with all the parameters.
+	 */
+	URLToken toToken();
+	
+	/**
+	 * Creates a valid History token pointing to the {@link View}, with all the parameters. The result is the same as
+	 * calling <code>toToken().toString()</code>.
+	 */
+	String toString();
+
+}
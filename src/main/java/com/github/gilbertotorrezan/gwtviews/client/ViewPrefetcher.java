@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.gilbertotorrezan.gwtviews.client.IdleScheduler.IdleCommand;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.prefetch.Prefetcher;
+import com.google.gwt.core.client.prefetch.RunAsyncCode;
+
+/**
+ * Downloads the code of {@link View}s before the user navigates to them, so the navigation doesn't wait for the download. 
+ * The code of the Views declared at {@link View#prefetch()} is downloaded when the browser is idle after the View is shown, and 
+ * the code of the View pointed by an anchor (<code>&lt;a href="#token"&gt;</code>) is downloaded when the anchor is hovered or focused.
+ * Anchors to other pages, and anchors without a token, are ignored.
+ * <p>
+ * Prefetching only downloads the code: the Views are not created. It is skipped when the user asked the browser to save 
+ * data, or when the connection is slow.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class ViewPrefetcher {
+	
+	/**
+	 * The time, in milliseconds, the pointer must stay over an anchor before the code of its View is prefetched.
+	 */
+	public static final int HOVER_DELAY = 80;
+	
+	//the split points waiting to be downloaded, in order of priority
+	private static final List<RunAsyncCode> queue = new ArrayList<>();
+	private static boolean enabled = true;
+	private static boolean idleScheduled;
+	private static INavigationManager manager;
+	
+	private ViewPrefetcher(){}
+	
+	/**
+	 * Enables or disables the prefetching. It is enabled by default.
+	 */
+	public static void setEnabled(boolean enabled) {
+		ViewPrefetcher.enabled = enabled;
+		if (!enabled){
+			queue.clear();
+			Prefetcher.stop();
+		}
+	}
+	
+	/**
+	 * Gets if the prefetching is enabled.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Gets if code can be prefetched now: the prefetching is enabled, and the browser doesn't report a slow connection or
+	 * the Save-Data preference.
+	 */
+	public static boolean isPrefetchAllowed() {
+		return enabled && (!GWT.isClient() || !isConstrainedConnection());
+	}
+	
+	/**
+	 * Prefetches the code right away, before any other code waiting to be prefetched.
+	 * 
+	 * @param code The split point of a View, obtained with <code>RunAsyncCode.runAsyncCode(MyView.class)</code>
+	 */
+	public static void prefetch(RunAsyncCode code) {
+		if (isPrefetchAllowed()){
+			download(code);
+		}
+	}
+	
+	/**
+	 * Called by the {@link NavigationManager} to download the code of a View while the access to it is checked. The connection
+	 * is not taken into account, since the code is needed as soon as the access is granted. The code is kept if the access is denied.
+	 */
+	static void download(RunAsyncCode code) {
+		if (code.isLoaded()){
+			return;
+		}
+		remove(code);
+		queue.add(0, code);
+		startPrefetching();
+	}
+	
+	/**
+	 * Prefetches the code when the browser is idle, after any other code waiting to be prefetched.
+	 * 
+	 * @param codes The split points of the Views, obtained with <code>RunAsyncCode.runAsyncCode(MyView.class)</code>
+	 */
+	public static void prefetchWhenIdle(RunAsyncCode... codes) {
+		if (!isPrefetchAllowed()){
+			return;
+		}
+		for (RunAsyncCode code : codes) {
+			if (!code.isLoaded() && !contains(code)){
+				queue.add(code);
+			}
+		}
+		if (!queue.isEmpty() && !idleScheduled){
+			idleScheduled = true;
+			IdleScheduler.schedule(new IdleCommand() {
+				@Override
+				public void execute(double timeRemaining) {
+					idleScheduled = false;
+					if (isPrefetchAllowed()){
+						startPrefetching();
+					}
+				}
+			});
+		}
+	}
+	
+	private static void startPrefetching() {
+		Iterator<RunAsyncCode> iterator = queue.iterator();
+		while (iterator.hasNext()){
+			if (iterator.next().isLoaded()){
+				iterator.remove();
+			}
+		}
+		if (!queue.isEmpty()){
+			//the Prefetcher replaces its queue, so the complete queue is always sent
+			Prefetcher.prefetch(new ArrayList<>(queue));
+			Prefetcher.start();
+		}
+	}
+	
+	private static boolean contains(RunAsyncCode code) {
+		for (RunAsyncCode queued : queue) {
+			if (queued.getSplitPoint() == code.getSplitPoint()){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void remove(RunAsyncCode code) {
+		Iterator<RunAsyncCode> iterator = queue.iterator();
+		while (iterator.hasNext()){
+			if (iterator.next().getSplitPoint() == code.getSplitPoint()){
+				iterator.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Called by the {@link NavigationManager} to prefetch the Views pointed by hovered or focused anchors.
+	 */
+	static void listenToAnchors(INavigationManager manager) {
+		if (ViewPrefetcher.manager == null && GWT.isClient()){
+			addAnchorListeners();
+		}
+		ViewPrefetcher.manager = manager;
+	}
+	
+	private static void onAnchorIntent(String token) {
+		if (manager != null && !token.isEmpty() && isPrefetchAllowed()){
+			manager.prefetch(token);
+		}
+	}
+	
+	private static native boolean isConstrainedConnection() /*-{
+		var connection = $wnd.navigator.connection;
+		if (!connection){
+			return false;
+		}
+		return !!connection.saveData || connection.effectiveType == "slow-2g" || connection.effectiveType == "2g";
+	}-*/;
+	
+	private static native void addAnchorListeners() /*-{
+		var timer = null;
+		var tokenOfAnchor = function(anchor) {
+			//only anchors to the current page are Views of the application
+			var location = $wnd.location;
+			if (anchor.protocol != location.protocol || anchor.host != location.host
+					|| anchor.pathname != location.pathname || anchor.search != location.search) {
+				return null;
+			}
+			//the same decoding used by the History, so the token matches the one shown after the click
+			var hash = anchor.hash;
+			if (!hash || hash.length < 2) {
+				return null;
+			}
+			try {
+				return $wnd.decodeURI(hash.substring(1).replace("%23", "#"));
+			} catch (e) {
+				return null;
+			}
+		};
+		var tokenOf = function(event) {
+			for (var node = event.target; node && node.nodeType == 1; node = node.parentNode) {
+				if (node.tagName == "A") {
+					var token = node.hasAttribute("href") ? tokenOfAnchor(node) : null;
+					return token ? token : null;
+				}
+			}
+			return null;
+		};
+		var prefetch = $entry(function(token) {
+			@com.github.gilbertotorrezan.gwtviews.client.ViewPrefetcher::onAnchorIntent(Ljava/lang/String;)(token);
+		});
+		var cancel = function() {
+			if (timer != null) {
+				$wnd.clearTimeout(timer);
+				timer = null;
+			}
+		};
+		$doc.addEventListener("mouseover", function(event) {
+			var token = tokenOf(event);
+			if (token != null) {
+				cancel();
+				timer = $wnd.setTimeout(function() {
+					timer = null;
+					prefetch(token);
+				}, @com.github.gilbertotorrezan.gwtviews.client.ViewPrefetcher::HOVER_DELAY);
+			}
+		}, true);
+		$doc.addEventListener("mouseout", cancel, true);
+		$doc.addEventListener("focusin", function(event) {
+			var token = tokenOf(event);
+			if (token != null) {
+				prefetch(token);
+			}
+		}, true);
+		$doc.addEventListener("touchstart", function(event) {
+			var token = tokenOf(event);
+			if (token != null) {
+				prefetch(token);
+			}
+		}, true);
+	}-*/;
+
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.gilbertotorrezan.gwtviews.client.IdleScheduler.IdleCommand;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Internal class used to create {@link View}s before they are shown, when the browser is idle. Each step of the preloading 
+ * (downloading the code of a View, and then creating its Presenter and the View) runs at its own idle period, so preloading
+ * many Views never competes with the startup of the application. The created Views are kept by the caching {@link Presenter}s, 
+ * so the first navigation to them only attaches the View.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ * 
+ * @see View#preload()
+ * @see NavigationManager#preload(String)
+ */
+final class ViewPreloader {
+	
+	private static final List<ScheduledCommand> queue = new ArrayList<>();
+	private static boolean idleScheduled;
+	
+	private ViewPreloader(){}
+	
+	/**
+	 * Schedules a step of the preloading to the next free idle period, after the steps already scheduled.
+	 */
+	static void preload(ScheduledCommand command) {
+		queue.add(command);
+		scheduleNext();
+	}
+	
+	private static void scheduleNext() {
+		if (queue.isEmpty() || idleScheduled){
+			return;
+		}
+		idleScheduled = true;
+		IdleScheduler.schedule(new IdleCommand() {
+			@Override
+			public void execute(double timeRemaining) {
+				idleScheduled = false;
+				if (!queue.isEmpty()){
+					queue.remove(0).execute();
+				}
+				scheduleNext();
+			}
+		});
+	}
+
+}
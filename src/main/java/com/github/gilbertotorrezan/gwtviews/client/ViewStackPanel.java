@@ -0,0 +1,214 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.layout.client.Layout;
+import com.google.gwt.layout.client.Layout.Layer;
+import com.google.gwt.user.client.ui.ComplexPanel;
+import com.google.gwt.user.client.ui.ProvidesResize;
+import com.google.gwt.user.client.ui.RequiresResize;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * <p>
+ * Panel that keeps the most recently shown Views attached to the page, hidden with <code>display: none</code>, and switches 
+ * between them without removing them from the DOM. Going back and forth between recent Views doesn't trigger the 
+ * <code>onLoad</code> / <code>onUnload</code> chains of the Views, nor rebuilds their layout from scratch.
+ * </p>
+ * <p>
+ * Like the {@link com.google.gwt.user.client.ui.DeckLayoutPanel}, each View is laid out in its own layer filling the whole 
+ * panel, so the panel itself must be sized: add it to a {@link com.google.gwt.user.client.ui.RootLayoutPanel} or another 
+ * layout panel, or give it an explicit size. It can be used as the root container of the application:
+ * </p>
+ * <pre>
+ * ViewStackPanel stack = new ViewStackPanel(5);
+ * RootLayoutPanel.get().add(stack);
+ * NavigationManager.start(stack);
+ * </pre>
+ * <p>
+ * Or inside a {@link ViewContainer}, calling {@link #showView(URLToken, Widget)} from the container. The least recently shown 
+ * Views over the limit are removed from the panel. Use it with Views that are cached by their {@link Presenter}s
+ * (see {@link CachePolicy}), otherwise each navigation creates a new View anyway. Hidden Views evicted from the cache of their 
+ * {@link CachedPresenter}s are removed from the panel as well.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class ViewStackPanel extends ComplexPanel implements HasViews, RequiresResize, ProvidesResize {
+	
+	/**
+	 * The default maximum number of Views kept attached.
+	 */
+	public static final int DEFAULT_MAX_VIEWS = 5;
+	
+	private final int maxViews;
+	private final Layout layout;
+	//the least recently shown View first
+	private final LinkedList<Widget> shownViews = new LinkedList<>();
+	//Views evicted from their caches while visible, removed as soon as they are hidden
+	private final Set<Widget> releasedViews = new HashSet<>();
+	private Widget visibleView;
+	
+	/**
+	 * Creates a panel that keeps up to {@link #DEFAULT_MAX_VIEWS} Views attached.
+	 */
+	public ViewStackPanel() {
+		this(DEFAULT_MAX_VIEWS);
+	}
+	
+	/**
+	 * Creates a panel that keeps up to <code>maxViews</code> Views attached.
+	 * 
+	 * @param maxViews The maximum number of Views kept attached, including the visible one. Must be positive
+	 */
+	public ViewStackPanel(int maxViews) {
+		if (maxViews < 1){
+			throw new IllegalArgumentException("maxViews must be positive: " + maxViews);
+		}
+		this.maxViews = maxViews;
+		setElement(Document.get().createDivElement());
+		layout = new Layout(getElement());
+	}
+	
+	@Override
+	public void showView(URLToken url, Widget view) {
+		if (view.getParent() != this){
+			add(view);
+		}
+		Widget previousView = visibleView;
+		setViewVisible(view, true);
+		visibleView = view;
+		if (previousView != null && previousView != view){
+			if (releasedViews.contains(previousView)){
+				remove(previousView);
+			}
+			else {
+				setViewVisible(previousView, false);
+			}
+		}
+		layout.layout();
+		if (view instanceof RequiresResize){
+			//the size of the panel may have changed while the View was hidden
+			((RequiresResize) view).onResize();
+		}
+		
+		shownViews.remove(view);
+		shownViews.addLast(view);
+		while (shownViews.size() > maxViews){
+			remove(shownViews.removeFirst());
+		}
+	}
+	
+	@Override
+	public void add(Widget w) {
+		w.removeFromParent();
+		getChildren().add(w);
+		Layer layer = layout.attachChild(w.getElement(), w);
+		//the default layer fills the whole panel
+		w.setLayoutData(layer);
+		setViewVisible(w, false);
+		adopt(w);
+		layout.layout();
+	}
+	
+	@Override
+	public boolean remove(Widget w) {
+		boolean removed = super.remove(w);
+		if (removed){
+			layout.removeChild((Layer) w.getLayoutData());
+			w.setLayoutData(null);
+			shownViews.remove(w);
+			releasedViews.remove(w);
+			if (w == visibleView){
+				visibleView = null;
+			}
+			//the View can be shown by other panels later
+			w.setVisible(true);
+		}
+		return removed;
+	}
+	
+	/**
+	 * Called when the View is evicted from the cache of its {@link CachedPresenter}. Hidden Views are removed right away, and
+	 * the visible View is removed as soon as another View is shown.
+	 */
+	void release(Widget view) {
+		if (view.getParent() != this){
+			return;
+		}
+		if (view == visibleView){
+			releasedViews.add(view);
+		}
+		else {
+			remove(view);
+		}
+	}
+	
+	@Override
+	public void onResize() {
+		if (visibleView instanceof RequiresResize){
+			((RequiresResize) visibleView).onResize();
+		}
+	}
+	
+	/**
+	 * Gets the View currently visible, or <code>null</code> if there is none.
+	 */
+	public Widget getVisibleView() {
+		return visibleView;
+	}
+	
+	/**
+	 * Gets the maximum number of Views kept attached.
+	 */
+	public int getMaxViews() {
+		return maxViews;
+	}
+	
+	@Override
+	protected void onAttach() {
+		super.onAttach();
+		layout.onAttach();
+	}
+	
+	@Override
+	protected void onDetach() {
+		super.onDetach();
+		layout.onDetach();
+	}
+	
+	private void setViewVisible(Widget view, boolean visible) {
+		((Layer) view.getLayoutData()).setVisible(visible);
+		view.setVisible(visible);
+	}
+
+}
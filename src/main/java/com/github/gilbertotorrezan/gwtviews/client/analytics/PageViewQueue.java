@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client.analytics;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Bounded queue of the page views waiting to be sent by the {@link UniversalAnalyticsTracker}. Repeated back-to-back pages
+ * and pages discarded by the sampling are never queued, and the oldest pages are dropped when the queue is full.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+class PageViewQueue {
+	
+	static final int DEFAULT_MAX_SIZE = 20;
+	static final int DEFAULT_BATCH_SIZE = 5;
+	
+	private final LinkedList<String> pages = new LinkedList<>();
+	private int maxSize = DEFAULT_MAX_SIZE;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private double sampleRate = 1;
+	private String lastPage;
+	private int droppedCount;
+	
+	/**
+	 * Queues the page view.
+	 * 
+	 * @return <code>true</code> if the page was queued, <code>false</code> if it was deduplicated or not sampled
+	 */
+	boolean add(String page) {
+		if (page.equals(lastPage)){
+			return false;
+		}
+		//deduplicated before sampling, so the sampling doesn't change which pages are considered repeated
+		lastPage = page;
+		if (sampleRate < 1 && random() >= sampleRate){
+			return false;
+		}
+		if (pages.size() >= maxSize){
+			pages.removeFirst();
+			droppedCount++;
+		}
+		pages.addLast(page);
+		return true;
+	}
+	
+	/**
+	 * Removes the next batch of pages to be sent, with up to <code>batchSize</code> pages.
+	 */
+	List<String> nextBatch() {
+		List<String> batch = new ArrayList<>(Math.min(batchSize, pages.size()));
+		while (!pages.isEmpty() && batch.size() < batchSize){
+			batch.add(pages.removeFirst());
+		}
+		return batch;
+	}
+	
+	/**
+	 * Removes all the queued pages.
+	 */
+	List<String> drain() {
+		List<String> all = new ArrayList<>(pages);
+		pages.clear();
+		return all;
+	}
+	
+	boolean isEmpty() {
+		return pages.isEmpty();
+	}
+	
+	int size() {
+		return pages.size();
+	}
+	
+	int getDroppedCount() {
+		return droppedCount;
+	}
+	
+	void setMaxSize(int maxSize) {
+		if (maxSize < 1){
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		while (pages.size() > maxSize){
+			pages.removeFirst();
+			droppedCount++;
+		}
+	}
+	
+	void setBatchSize(int batchSize) {
+		if (batchSize < 1){
+			throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+	
+	void setSampleRate(double sampleRate) {
+		if (sampleRate < 0 || sampleRate > 1){
+			throw new IllegalArgumentException("sampleRate must be between 0 and 1: " + sampleRate);
+		}
+		this.sampleRate = sampleRate;
+	}
+	
+	/**
+	 * Gets a random number between 0 (inclusive) and 1 (exclusive) to sample the page views. Can be overridden for testing.
+	 */
+	double random() {
+		return Math.random();
+	}
+
+}
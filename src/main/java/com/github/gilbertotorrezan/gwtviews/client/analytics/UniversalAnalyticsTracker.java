@@ -24,14 +24,39 @@
  */
 package com.github.gilbertotorrezan.gwtviews.client.analytics;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.arcbees.analytics.shared.Analytics;
 import com.arcbees.analytics.shared.options.CreateOptions;
+import com.github.gilbertotorrezan.gwtviews.client.NavigationManager;
+import com.github.gilbertotorrezan.gwtviews.client.NoOpPageViewTracker;
+import com.github.gilbertotorrezan.gwtviews.client.PageViewTracker;
 import com.github.gilbertotorrezan.gwtviews.client.URLToken;
-import com.google.gwt.core.shared.GWT;
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.client.rpc.AsyncCallback;
 
 /**
  * Class used by the NavigationManager to track page views. Must be configured by calling the 
  * {@link #configure(String)} or the {@link #setAnalytics(Analytics)} methods. 
+ * <p>
+ * The page views are sent after the Views are shown, with {@link Scheduler#scheduleDeferred(ScheduledCommand)}, in batches 
+ * of up to {@link #setBatchSize(int)} page views per deferred command, so the analytics never competes with the rendering 
+ * of the Views. Repeated back-to-back pages are ignored, and the page views can be sampled with {@link #setSampleRate(double)}.
+ * </p>
+ * <p>
+ * When configured with {@link #configure(String)}, the code of the tracker and the <code>analytics.js</code> are only loaded 
+ * after the first View is painted. The page views are kept at the queue until then.
+ * </p>
+ * <p>
+ * The NavigationManager only sends page views to this class when the <code>com.github.gilbertotorrezan.gwtviews.analytics</code> 
+ * module is inherited.
+ * </p>
  * 
  * @author Gilberto Torrezan Filho
  *
@@ -41,23 +66,145 @@ import com.google.gwt.core.shared.GWT;
 public class UniversalAnalyticsTracker {
 	
 	private static Analytics analytics;
+	private static String trackerId;
+	private static String userId;
+	private static boolean loading;
+	private static boolean loadScheduled;
+	private static final List<AsyncCallback<Analytics>> loadCallbacks = new ArrayList<>();
+	private static final PageViewQueue queue = new PageViewQueue();
+	private static boolean flushScheduled;
+	
+	private static final ScheduledCommand flushCommand = new ScheduledCommand() {
+		@Override
+		public void execute() {
+			flushScheduled = false;
+			if (analytics == null){
+				//sent when the Analytics is created
+				return;
+			}
+			send(queue.nextBatch());
+			if (!queue.isEmpty()){
+				scheduleFlush();
+			}
+		}
+	};
 	
 	private UniversalAnalyticsTracker(){}
 	
-	private static void autoCreateAnalyticsIfNull(){
+	private static void createAnalytics(){
 		if (analytics == null){
 			UniversalAnalyticsTrackerGinjector injector = GWT.create(UniversalAnalyticsTrackerGinjector.class);
 			analytics = injector.getAnalytics();
+			createTracker();
+		}
+		scheduleFlush();
+	}
+	
+	private static void createTracker(){
+		CreateOptions options = analytics.create(trackerId);
+		if (userId != null){
+			options.userId(userId);
+		}
+		options.go();
+	}
+	
+	/**
+	 * Loads the code of the tracker at its own fragment, after the next frame is painted.
+	 */
+	private static void loadAfterPaint(){
+		if (loading || loadScheduled){
+			return;
 		}
+		loadScheduled = true;
+		AnimationScheduler.get().requestAnimationFrame(new AnimationCallback() {
+			@Override
+			public void execute(double timestamp) {
+				//the deferred command runs after the frame is painted
+				Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+					@Override
+					public void execute() {
+						loadScheduled = false;
+						load(null);
+					}
+				});
+			}
+		});
 	}
 	
 	/**
-	 * @return The current {@link Analytics} object, or <code>null</code> if the UniversalAnalyticsTracker was not configured.
+	 * Loads the code of the tracker at its own fragment and creates the {@link Analytics}, notifying the callback when done.
+	 * Only one download runs at a time, so the callbacks of concurrent calls wait for the same one.
+	 */
+	private static void load(AsyncCallback<Analytics> callback){
+		if (analytics != null){
+			if (callback != null){
+				callback.onSuccess(analytics);
+			}
+			return;
+		}
+		if (callback != null){
+			loadCallbacks.add(callback);
+		}
+		if (loading){
+			return;
+		}
+		loading = true;
+		GWT.runAsync(UniversalAnalyticsTracker.class, new RunAsyncCallback() {
+			@Override
+			public void onSuccess() {
+				loading = false;
+				createAnalytics();
+				List<AsyncCallback<Analytics>> callbacks = new ArrayList<>(loadCallbacks);
+				loadCallbacks.clear();
+				for (AsyncCallback<Analytics> each : callbacks) {
+					each.onSuccess(analytics);
+				}
+			}
+			@Override
+			public void onFailure(Throwable reason) {
+				loading = false;
+				GWT.log("Error loading the analytics", reason);
+				List<AsyncCallback<Analytics>> callbacks = new ArrayList<>(loadCallbacks);
+				loadCallbacks.clear();
+				for (AsyncCallback<Analytics> each : callbacks) {
+					each.onFailure(reason);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Gets the current {@link Analytics} object. When the UniversalAnalyticsTracker was configured but the Analytics wasn't 
+	 * loaded yet, its download starts at the background and <code>null</code> is returned: use 
+	 * {@link #getAnalytics(AsyncCallback)} to wait for it.
+	 * 
+	 * @return The current {@link Analytics} object, or <code>null</code> if the UniversalAnalyticsTracker was not configured
+	 * or the Analytics is still loading.
 	 */
 	public static Analytics getAnalytics(){
+		if (analytics == null && trackerId != null){
+			load(null);
+		}
 		return analytics;
 	}
 	
+	/**
+	 * Gets the {@link Analytics} object, loading it at its own fragment when the UniversalAnalyticsTracker was configured but the
+	 * Analytics wasn't loaded yet.
+	 * 
+	 * @param callback Receives the Analytics object, or <code>null</code> if the UniversalAnalyticsTracker was not configured
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void getAnalytics(AsyncCallback<Analytics> callback){
+		if (analytics == null && trackerId != null){
+			load(callback);
+		}
+		else {
+			callback.onSuccess(analytics);
+		}
+	}
+	
 	/**
 	 * Manually sets the {@link Analytics} instance to be used by the framework. When calling this method, the caller is
 	 * responsible for creating and configuring the Analytics object.
@@ -66,24 +213,24 @@ public class UniversalAnalyticsTracker {
 	 */
 	public static void setAnalytics(Analytics analytics){
 		UniversalAnalyticsTracker.analytics = analytics;
+		registerPageViewTracker();
 	}
 	
 	/**
 	 * Creates and configures an {@link Analytics} instance with the trackerId to be used by the framework. 
-	 * When using this method, the <code>analytics.js</code> is imported automatically. 
+	 * When using this method, the <code>analytics.js</code> is imported automatically, after the first View is painted. 
 	 * 
 	 * @param trackerId The tracker ID. For instance, "UA-XXXX-Y"
 	 * 
 	 * @see Analytics#create(String)
 	 */
 	public static void configure(String trackerId){
-		autoCreateAnalyticsIfNull();
-		analytics.create(trackerId).go();
+		configure(trackerId, null);
 	}
 	
 	/**
 	 * Creates and configures an {@link Analytics} instance with the trackerId and userId to be used by the framework.
-	 * When using this method, the <code>analytics.js</code> is imported automatically.
+	 * When using this method, the <code>analytics.js</code> is imported automatically, after the first View is painted.
 	 * 
 	 * @param trackerId The tracker ID. For instance, "UA-XXXX-Y"
 	 * @param userId A string which identifies your user, to be used at the analytics dashboard later on
@@ -92,22 +239,120 @@ public class UniversalAnalyticsTracker {
 	 * @see CreateOptions#userId(String)
 	 */
 	public static void configure(String trackerId, String userId){
-		autoCreateAnalyticsIfNull();
-		analytics.create(trackerId).userId(userId).go();
+		UniversalAnalyticsTracker.trackerId = trackerId;
+		UniversalAnalyticsTracker.userId = userId;
+		registerPageViewTracker();
+		if (analytics != null){
+			//already loaded, or set by setAnalytics
+			createTracker();
+		}
 	}
 	
 	/**
-	 * Tracks a page view. Do nothing if the UniversalAnalyticsTracker is not configured.
+	 * Tracks a page view. Do nothing if the UniversalAnalyticsTracker is not configured. The page view is queued and sent 
+	 * by a deferred command, unless it is the same page of the previous page view or it isn't sampled.
 	 * 
 	 * @param pageWithParameters The current page for tracking, including query parameters. Can be obtained by calling {@link URLToken#toString()}.
 	 * 
 	 * @see Analytics#sendPageView()
 	 */
 	public static void sendPageView(String pageWithParameters){
+		if (analytics == null && trackerId == null){
+			return;
+		}
+		if (queue.add(pageWithParameters)){
+			if (analytics == null){
+				loadAfterPaint();
+			}
+			else {
+				scheduleFlush();
+			}
+		}
+	}
+	
+	/**
+	 * Sends all the queued page views. Can be used before the user leaves the application. The page views are sent immediately
+	 * when the Analytics is loaded, otherwise right after it is loaded at its own fragment.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void flush(){
+		if (analytics != null){
+			send(queue.drain());
+		}
+		else if (trackerId != null){
+			load(new AsyncCallback<Analytics>() {
+				@Override
+				public void onSuccess(Analytics result) {
+					send(queue.drain());
+				}
+				@Override
+				public void onFailure(Throwable caught) {
+					//logged by the load
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Sets the fraction of the page views that are sent, between <code>0</code> (none) and <code>1</code> (all, the default). 
+	 * Each page view is sampled independently.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void setSampleRate(double sampleRate){
+		queue.setSampleRate(sampleRate);
+	}
+	
+	/**
+	 * Sets the maximum number of page views sent by each deferred command. The default is <code>5</code>.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void setBatchSize(int batchSize){
+		queue.setBatchSize(batchSize);
+	}
+	
+	/**
+	 * Sets the maximum number of page views waiting to be sent. The oldest page views are dropped when the queue is full. 
+	 * The default is <code>20</code>.
+	 * 
+	 * @since v.1.4.1
+	 */
+	public static void setMaxQueueSize(int maxQueueSize){
+		queue.setMaxSize(maxQueueSize);
+	}
+	
+	/**
+	 * Sends the page views of the NavigationManager to this tracker, for the applications that only inherit the 
+	 * <code>gwtviews</code> module, where no {@link PageViewTracker} is bound by deferred binding.
+	 * 
+	 * @deprecated Kept for compatibility only: inherit the <code>com.github.gilbertotorrezan.gwtviews.analytics</code> module 
+	 * instead. It will be removed in the next major version
+	 */
+	@Deprecated
+	private static void registerPageViewTracker(){
+		if (NavigationManager.getPageViewTracker() instanceof NoOpPageViewTracker){
+			GWT.log("The page views are sent to the UniversalAnalyticsTracker without inheriting the " 
+					+ "com.github.gilbertotorrezan.gwtviews.analytics module. This is deprecated: inherit the module instead.");
+			NavigationManager.setPageViewTracker(new UniversalAnalyticsPageViewTracker());
+		}
+	}
+	
+	private static void scheduleFlush(){
+		if (!flushScheduled){
+			flushScheduled = true;
+			Scheduler.get().scheduleDeferred(flushCommand);
+		}
+	}
+	
+	private static void send(Iterable<String> pages){
 		if (analytics == null){
 			return;
 		}
-		analytics.sendPageView().documentPath(pageWithParameters).go();
+		for (String page : pages) {
+			analytics.sendPageView().documentPath(page).go();
+		}
 	}
 
 }
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.google.gwt.core.ext.CachedGeneratorResult;
+import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.IncrementalGenerator;
+import com.google.gwt.core.ext.RebindMode;
+import com.google.gwt.core.ext.RebindResult;
+import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.google.gwt.core.ext.typeinfo.JRealClassType;
+
+/**
+ * The source types a generated type depends on, with their last modification times. Used by the {@link IncrementalGenerator}s
+ * of the project to reuse the types generated by a previous compilation (like a SuperDevMode refresh) when none of 
+ * their sources changed.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+class GeneratorFingerprint {
+	
+	private static final String CLIENT_DATA_KEY = "gwt-views-fingerprint";
+	
+	//sorted, so the fingerprint doesn't depend on the order of the types at the TypeOracle
+	private final Set<String> entries = new TreeSet<>();
+	
+	/**
+	 * Adds a type to the fingerprint. Changing the source of the type invalidates the generated type.
+	 */
+	public GeneratorFingerprint add(JClassType type) {
+		JClassType erased = type.getErasedType();
+		StringBuilder entry = new StringBuilder(erased.getQualifiedSourceName());
+		if (erased instanceof JRealClassType){
+			entry.append('@').append(((JRealClassType) erased).getLastModifiedTime());
+		}
+		entries.add(entry.toString());
+		return this;
+	}
+	
+	/**
+	 * Gets the result of the previous compilation, if the generated type can be reused.
+	 * 
+	 * @param context The context of the generator
+	 * @param resultTypeName The qualified name of the generated type
+	 * @return A {@link RebindMode#USE_ALL_CACHED} result, or <code>null</code> if the type must be generated
+	 */
+	public RebindResult tryReuse(GeneratorContext context, String resultTypeName) {
+		if (!context.isGeneratorResultCachingEnabled()){
+			return null;
+		}
+		CachedGeneratorResult cached = context.getCachedGeneratorResult();
+		if (cached == null || !resultTypeName.equals(cached.getResultTypeName()) || !toString().equals(cached.getClientData(CLIENT_DATA_KEY))){
+			return null;
+		}
+		return new RebindResult(RebindMode.USE_ALL_CACHED, resultTypeName);
+	}
+	
+	/**
+	 * Creates the result of a new generated type, storing the fingerprint to be checked by the next compilation.
+	 * 
+	 * @param resultTypeName The qualified name of the generated type
+	 */
+	public RebindResult newResult(String resultTypeName) {
+		RebindResult result = new RebindResult(RebindMode.USE_ALL_NEW, resultTypeName);
+		result.putClientData(CLIENT_DATA_KEY, toString());
+		return result;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (String entry : entries) {
+			builder.append(entry).append('\n');
+		}
+		return builder.toString();
+	}
+
+}
@@ -26,21 +26,25 @@ package com.github.gilbertotorrezan.gwtviews.rebind;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.github.gilbertotorrezan.gwtviews.client.CachePolicy;
 import com.github.gilbertotorrezan.gwtviews.client.HasViews;
 import com.github.gilbertotorrezan.gwtviews.client.NavigationManager;
 import com.github.gilbertotorrezan.gwtviews.client.Presenter;
 import com.github.gilbertotorrezan.gwtviews.client.URLInterceptor;
 import com.github.gilbertotorrezan.gwtviews.client.View;
 import com.github.gilbertotorrezan.gwtviews.client.ViewContainer;
-import com.google.gwt.core.ext.Generator;
+import com.github.gilbertotorrezan.gwtviews.client.ViewParameters;
 import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.IncrementalGenerator;
+import com.google.gwt.core.ext.RebindResult;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
@@ -50,24 +54,54 @@ import com.google.gwt.user.rebind.ClassSourceFileComposerFactory;
 import com.google.gwt.user.rebind.SourceWriter;
 
 /**
- * Class used by the code generator to create the {@link NavigationManager}.
+ * Class used by the code generator to create the {@link NavigationManager}. The generated type is reused by incremental compilations 
+ * until a {@link View} or {@link ViewContainer} type is changed, added or removed.
  * 
  * @author Gilberto Torrezan Filho
  *
  * @since v.1.0.0
  */
-public class NavigationManagerGenerator extends Generator {
+public class NavigationManagerGenerator extends IncrementalGenerator {
+	
+	private static final long VERSION_ID = 1L;
+	
+	@Override
+	public long getVersionId() {
+		return VERSION_ID;
+	}
 
 	@SuppressWarnings("rawtypes")
 	@Override
-	public String generate(TreeLogger logger, GeneratorContext context, String typeName) throws UnableToCompleteException {
+	public RebindResult generateIncrementally(TreeLogger logger, GeneratorContext context, String typeName) throws UnableToCompleteException {
 		
 		final TypeOracle typeOracle = context.getTypeOracle();
 		JClassType mainType = typeOracle.findType(typeName);
 		
+		JClassType[] types = ViewIndex.getAnnotatedTypes(logger, typeOracle);
+		
+		GeneratorFingerprint fingerprint = new GeneratorFingerprint().add(mainType);
+		for (JClassType type : types) {
+			if (type.isAnnotationPresent(View.class)){
+				fingerprint.add(type);
+				Class<?> parameters = type.getAnnotation(View.class).parameters();
+				if (!ViewParameters.class.equals(parameters)){
+					fingerprint.add(typeOracle.findType(parameters.getName().replace('$', '.')));
+				}
+			}
+			else if (type.isAnnotationPresent(ViewContainer.class)){
+				fingerprint.add(type);
+			}
+		}
+		
+		String resultTypeName = mainType.getQualifiedSourceName()+"Impl";
+		RebindResult cached = fingerprint.tryReuse(context, resultTypeName);
+		if (cached != null){
+			return cached;
+		}
+		
 		PrintWriter writer = context.tryCreate(logger, mainType.getPackage().getName(), mainType.getName()+"Impl");
 		if (writer == null){
-			return mainType.getQualifiedSourceName()+"Impl";
+			return fingerprint.newResult(resultTypeName);
 		}
 		
 		ClassSourceFileComposerFactory factory = new ClassSourceFileComposerFactory(mainType.getPackage().getName(), mainType.getName()+"Impl");
@@ -80,14 +114,13 @@ public class NavigationManagerGenerator extends Generator {
 		factory.addImport("com.google.gwt.http.client.URL");
 		factory.addImport("com.google.gwt.user.client.rpc.AsyncCallback");
 		factory.addImport("com.google.gwt.core.client.*");
+		factory.addImport("com.google.gwt.core.client.prefetch.RunAsyncCode");
 		factory.addImport("com.google.gwt.event.logical.shared.*");
-		factory.addImport("com.github.gilbertotorrezan.gwtviews.client.analytics.*");
 		factory.addImport("javax.annotation.Generated");
 		factory.addImport("java.util.*");
 		
 		factory.addAnnotationDeclaration("@Generated("
 				+ "value=\""+NavigationManagerGenerator.class.getName()+"\", "
-				+ "date=\""+new Date()+"\", "
 				+ "comments=\"Generated by GWT-Views project.\")");
 		
 		SourceWriter sourceWriter = factory.createSourceWriter(context, writer);
@@ -99,10 +132,21 @@ public class NavigationManagerGenerator extends Generator {
 		sourceWriter.println("private URLTokenFactory tokenFactory = new URLTokenFactory();");
 		sourceWriter.println("private final Map<String, Presenter<?>> presentersMap = new HashMap<>();");
 		sourceWriter.println("private URLToken currentToken = tokenFactory.createToken(\"\");");
-		sourceWriter.println("private URLInterceptor currentInterceptor;\n");
+		sourceWriter.println("private URLInterceptor currentInterceptor;");
+		//incremented at each navigation, so the asynchronous completions of superseded navigations can be dropped
+		sourceWriter.println("private int navigationCount;");
+		//the History tokens are compared as they are, so skipping the token already shown doesn't parse the parameters
+		sourceWriter.println("private String shownToken;");
+		sourceWriter.println("private String navigationToken;");
+		sourceWriter.println("private String lastHistoryToken;");
+		sourceWriter.println("private final List<NavigationListener> navigationListeners = new ArrayList<>();");
+		//only measured when there are listeners, so the navigations without listeners pay just a null check per phase
+		sourceWriter.println("private NavigationTiming navigationTiming;");
+		//bound by deferred binding: a no-op unless the analytics module is inherited
+		sourceWriter.println("private PageViewTracker pageViewTracker = GWT.create(PageViewTracker.class);\n");
 		
 		List<ViewPage> viewPages = new ArrayList<>();
-		Map<String, HasViewPages> viewContainers = new HashMap<>();
+		Map<String, HasViewPages> viewContainers = new LinkedHashMap<>();
 		
 		Set<ViewPage> viewsInNeedOfPresenters = new LinkedHashSet<>();
 		Set<HasViewPages> containersInNeedOfPresenters = new LinkedHashSet<>();
@@ -113,7 +157,6 @@ public class NavigationManagerGenerator extends Generator {
 		
 		JClassType containerType = typeOracle.findType(HasViews.class.getName());
 		
-		JClassType[] types = typeOracle.getTypes();
 		for (JClassType type : types) {
 			if (type.isAnnotationPresent(View.class)){
 				View view = type.getAnnotation(View.class);
@@ -121,6 +164,12 @@ public class NavigationManagerGenerator extends Generator {
 					logger.log(Type.WARN, type.getName()+" must have an empty constructor to be a valid "+View.class.getSimpleName()+".");
 					continue;
 				}
+				if (!ViewParameters.class.equals(view.parameters())){
+					JClassType parametersType = typeOracle.findType(view.parameters().getName().replace('$', '.'));
+					//reports the errors at the declaration of the parameters even when they are not used
+					ViewParametersSchema.checkView(logger, type.getQualifiedSourceName(), view.value());
+					ViewParametersSchema.read(logger, parametersType);
+				}
 				ViewPage page = new ViewPage(view, type);
 				viewPages.add(page);
 				if (view.defaultView()){
@@ -161,21 +210,47 @@ public class NavigationManagerGenerator extends Generator {
 		if (defaultViewContainerPage == null && !viewContainers.isEmpty()){
 			defaultViewContainerPage = viewContainers.values().iterator().next();
 		}
+		List<HasViewPages> containerPages = new ArrayList<>(viewContainers.values());
+		
+		printRoutes(logger, sourceWriter, viewPages);
+		
+		List<String> fragmentGroups = new ArrayList<>();
+		for (ViewPage viewPage : viewPages) {
+			String fragmentGroup = viewPage.getView().fragmentGroup();
+			if (!fragmentGroup.isEmpty() && !fragmentGroups.contains(fragmentGroup)){
+				fragmentGroups.add(fragmentGroup);
+			}
+		}
 		
 		sourceWriter.println("public void onValueChange(ValueChangeEvent<String> event){");
 		sourceWriter.indent();
-		sourceWriter.println("final URLToken token = tokenFactory.createToken(event.getValue());");
+		sourceWriter.println("final NavigationTiming timing = navigationListeners.isEmpty() ? null : new NavigationTiming();");
+		printTiming(sourceWriter, "timing", "start(NavigationPhase.TOKEN_PARSE)");
+		sourceWriter.println("final String historyToken = event.getValue();");
+		sourceWriter.println("if (historyToken.equals(lastHistoryToken)) {");
+		sourceWriter.indent();
+		sourceWriter.println("//the History only repeats a token when fireCurrentHistoryState() is called, like after a login: shows it again");
+		sourceWriter.println("shownToken = null;");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.println("lastHistoryToken = historyToken;");
+		sourceWriter.println("final URLToken token = tokenFactory.createToken(historyToken);");
+		printTiming(sourceWriter, "timing", "end(NavigationPhase.TOKEN_PARSE)");
 		
 		sourceWriter.println("if (currentInterceptor != null){");
 		sourceWriter.indent();
 				
 		sourceWriter.println("History.newItem(currentToken.toString(), false);");
+		printTiming(sourceWriter, "timing", "start(NavigationPhase.INTERCEPTOR)");
 		sourceWriter.println("currentInterceptor.onUrlChanged(currentToken, token, new URLInterceptorCallback(){");
 		sourceWriter.indent();
 		sourceWriter.println("@Override\npublic void proceedTo(URLToken destination){");
 		sourceWriter.indent();
-		sourceWriter.println("History.newItem(destination.toString(), false);");
-		sourceWriter.println("proceedToImpl(destination);");
+		sourceWriter.println("String destinationToken = destination.toString();");
+		sourceWriter.println("History.newItem(destinationToken, false);");
+		sourceWriter.println("lastHistoryToken = destinationToken;");
+		printTiming(sourceWriter, "timing", "end(NavigationPhase.INTERCEPTOR)");
+		sourceWriter.println("proceedToImpl(destination, destinationToken, timing);");
 		sourceWriter.outdent();
 		sourceWriter.println("}");
 		
@@ -186,17 +261,28 @@ public class NavigationManagerGenerator extends Generator {
 		sourceWriter.outdent();
 		sourceWriter.println("}");
 		
-		sourceWriter.println("this.proceedToImpl(token);");
+		sourceWriter.println("this.proceedToImpl(token, historyToken, timing);");
 		
 		sourceWriter.outdent();
 		sourceWriter.println("}\n");
 		
-		sourceWriter.println("private void proceedToImpl(final URLToken token){");
+		sourceWriter.println("private void proceedToImpl(final URLToken token, final String historyToken, final NavigationTiming timing){");
 		sourceWriter.indent();
 		
+		sourceWriter.println("final int navigation = ++navigationCount;");
 		sourceWriter.println("this.currentToken = token;");
+		sourceWriter.println("this.navigationTiming = null;");
+		sourceWriter.println("if (historyToken.equals(shownToken)) {");
+		sourceWriter.indent();
+		sourceWriter.println("//already shown: a pending navigation to another token is superseded as well");
+		sourceWriter.println("return;");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.println("this.navigationToken = historyToken;");
+		sourceWriter.println("this.navigationTiming = timing;");
+		printTiming(sourceWriter, "timing", "setToken(historyToken)");
 		
-		sourceWriter.println("switch (token.getId()){");
+		sourceWriter.println("switch (findView(token)){");
 		sourceWriter.indent();
 		
 		int defaultViewIndex = -1;
@@ -209,37 +295,36 @@ public class NavigationManagerGenerator extends Generator {
 			
 			if (view.defaultView()){
 				defaultViewIndex = i;
-				sourceWriter.println("case \"\":");
 			}
 			if (view.notFoundView()){
 				notFoundViewIndex = i;
 			}
 			
-			sourceWriter.println("case \"" + view.value() + "\": {");
+			sourceWriter.println("case " + i + ": {");
 			sourceWriter.indent();
 			
 			if (!view.publicAccess()){
 				sourceWriter.println("if (userPresenceManager != null) {");
 				sourceWriter.indent();
-				
-				if (view.rolesAllowed() != null && view.rolesAllowed().length > 0){
-					String[] roles = view.rolesAllowed();
-					StringBuilder params = new StringBuilder("new String[]{ ");
-					String sep = "";
-					for (String role : roles){
-						params.append(sep).append("\"").append(role).append("\"");
-						sep = ", ";
-					}
-					params.append(" }");
-					sourceWriter.println("userPresenceManager.isUserInAnyRole(token, "+params.toString()+", new AsyncCallback<Boolean>(){");
-				}
-				else {
-					sourceWriter.println("userPresenceManager.isUserInAnyRole(token, new String[0], new AsyncCallback<Boolean>(){");
+				//the split point waits for this download instead of starting another one after the access is granted
+				sourceWriter.println("ViewPrefetcher.download(RunAsyncCode.runAsyncCode(" + getSplitPoint(viewPage, viewPages) + ".class));");
+				HasViewPages hasViews = getViewContainer(logger, viewPage, viewContainers, defaultViewContainerPage);
+				if (hasViews != null && !hasViews.getContainer().initialDownload()){
+					sourceWriter.println("ViewPrefetcher.download(RunAsyncCode.runAsyncCode(" + hasViews.getType().getQualifiedSourceName() + ".class));");
 				}
+				
+				printTiming(sourceWriter, "navigationTiming", "start(NavigationPhase.AUTHORIZATION)");
+				sourceWriter.println("userPresenceManager.isUserInAnyRole(token, " + getRolesExpression(view) + ", new AsyncCallback<Boolean>(){");
 				sourceWriter.indent();
 				sourceWriter.println("@Override");
 				sourceWriter.println("public void onSuccess(Boolean allowed){");
 				sourceWriter.indent();
+				sourceWriter.println("if (navigation != navigationCount) {");
+				sourceWriter.indent();
+				sourceWriter.println("return;");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
+				printTiming(sourceWriter, "navigationTiming", "end(NavigationPhase.AUTHORIZATION)");
 				sourceWriter.println("if (allowed == null || !allowed){");
 				sourceWriter.indent();
 				sourceWriter.println("URLToken nextToken = tokenFactory.createToken(\""+defaultViewPage.getView().value()+"\");");
@@ -249,7 +334,7 @@ public class NavigationManagerGenerator extends Generator {
 				sourceWriter.println("}");
 				sourceWriter.println("else {");
 				sourceWriter.indent();
-				sourceWriter.println("showPresenter" + i + "(token);");
+				sourceWriter.println("showPresenter" + i + "(token, false, navigation);");
 				sourceWriter.outdent();
 				sourceWriter.println("}");
 				sourceWriter.outdent();
@@ -257,6 +342,11 @@ public class NavigationManagerGenerator extends Generator {
 				sourceWriter.println("@Override");
 				sourceWriter.println("public void onFailure(Throwable error){");
 				sourceWriter.indent();
+				sourceWriter.println("if (navigation != navigationCount) {");
+				sourceWriter.indent();
+				sourceWriter.println("return;");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
 				sourceWriter.println("GWT.log(\"Error loading view: \" + error, error);");
 				sourceWriter.println("URLToken nextToken = tokenFactory.createToken(\""+defaultViewPage.getView().value()+"\");");
 				sourceWriter.println("nextToken.setParameter(\"next\", URL.encodeQueryString(token.toString()));");
@@ -271,7 +361,7 @@ public class NavigationManagerGenerator extends Generator {
 				sourceWriter.println("}");
 			}
 			
-			sourceWriter.println("showPresenter" + i + "(token);");
+			sourceWriter.println("showPresenter" + i + "(token, false, navigation);");
 			sourceWriter.outdent();
 			sourceWriter.println("}\nbreak;");
 		}
@@ -281,12 +371,12 @@ public class NavigationManagerGenerator extends Generator {
 		
 		if (notFoundViewPage != null){
 			sourceWriter.println("//NotFound View");
-			sourceWriter.println("showPresenter" + notFoundViewIndex + "(tokenFactory.createToken(\""+notFoundViewPage.getView().value()+"\"));");
+			sourceWriter.println("showPresenter" + notFoundViewIndex + "(tokenFactory.createToken(\""+notFoundViewPage.getView().value()+"\"), false, navigation);");
 		}
 		else {
 			sourceWriter.println("//Default View");
 			sourceWriter.println("History.newItem(\""+defaultViewPage.getView().value()+"\", false);");
-			sourceWriter.println("showPresenter" + defaultViewIndex + "(tokenFactory.createToken(\""+defaultViewPage.getView().value()+"\"));");			
+			sourceWriter.println("showPresenter" + defaultViewIndex + "(tokenFactory.createToken(\""+defaultViewPage.getView().value()+"\"), false, navigation);");			
 		}
 		sourceWriter.outdent();
 		sourceWriter.println("}\nbreak;");
@@ -300,33 +390,83 @@ public class NavigationManagerGenerator extends Generator {
 			ViewPage viewPage = viewPages.get(i);
 			final View view = viewPage.getView();
 			
-			sourceWriter.println("/** Method to show the presenter of the "+view.value()+" view. */");
-			sourceWriter.println("private void showPresenter"+i+"(final URLToken token) {");
+			sourceWriter.println("/** Method to show the presenter of the "+view.value()+" view, or just to schedule the creation of the view when preloading. */");
+			sourceWriter.println("private void showPresenter"+i+"(final URLToken token, final boolean preloadOnly, final int navigation) {");
 			sourceWriter.indent();
-			
-			sourceWriter.println("GWT.runAsync(new RunAsyncCallback() {");
+			sourceWriter.println("if (!preloadOnly && navigationTiming != null) {");
 			sourceWriter.indent();
+			sourceWriter.println("navigationTiming.start(NavigationPhase.FRAGMENT_LOAD);");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
 			
-			sourceWriter.println("public void onSuccess() {");
-			sourceWriter.indent();
+			HasViewPages hasViews = getViewContainer(logger, viewPage, viewContainers, defaultViewContainerPage);
+			if (hasViews != null){
+				//downloaded in parallel with the code of the view
+				sourceWriter.println("if (!preloadOnly) {");
+				sourceWriter.indent();
+				sourceWriter.println("loadContainer" + containerPages.indexOf(hasViews) + "();");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
+			}
 			
-			sourceWriter.println("UniversalAnalyticsTracker.sendPageView(token.toString());");
-			sourceWriter.println("Presenter<?> presenter = presentersMap.get(\""+view.value()+"\");");
-			sourceWriter.println("if (presenter == null) {");
+			boolean grouped = !view.fragmentGroup().isEmpty();
+			if (grouped){
+				sourceWriter.println("loadFragmentGroup" + fragmentGroups.indexOf(view.fragmentGroup()) + "(" + i + ", token, preloadOnly, navigation);");
+				sourceWriter.outdent();
+				sourceWriter.println("}\n");
+				
+				//only called by the split point of the group, so the code of the presenter goes to the fragment of the group
+				sourceWriter.println("private void showLoadedPresenter"+i+"(final URLToken token, final boolean preloadOnly, final int navigation) {");
+				sourceWriter.indent();
+			}
+			else {
+				//named split points can be prefetched with RunAsyncCode
+				sourceWriter.println("GWT.runAsync(" + viewPage.getType().getQualifiedSourceName() + ".class, new RunAsyncCallback() {");
+				sourceWriter.indent();
+				
+				sourceWriter.println("public void onSuccess() {");
+				sourceWriter.indent();
+			}
+			sourceWriter.println("if (preloadOnly) {");
+			sourceWriter.indent();
+			//the presenter and the view are created at the next idle period, not when the code arrives
+			sourceWriter.println("ViewPreloader.preload(new Scheduler.ScheduledCommand() {");
+			sourceWriter.indent();
+			sourceWriter.println("public void execute() {");
+			sourceWriter.indent();
+			sourceWriter.println("getPresenter" + i + "().getView(token);");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.outdent();
+			sourceWriter.println("});");
+			sourceWriter.println("return;");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("if (navigation != navigationCount) {");
 			sourceWriter.indent();
+			sourceWriter.println("//superseded by a newer navigation");
+			sourceWriter.println("return;");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("NavigationTiming timing = navigationTiming;");
+			printTiming(sourceWriter, "timing", "end(NavigationPhase.FRAGMENT_LOAD)", 
+					"setView(\"" + view.value() + "\", presentersMap.containsKey(\"" + view.value() + "\"))", "start(NavigationPhase.PRESENTER)");
+			sourceWriter.println("Presenter<?> presenter = getPresenter" + i + "();");
 			
 			Class<? extends Presenter> customPresenter = view.customPresenter();
+			String viewCached;
 			if (!Presenter.class.equals(customPresenter)){
-				sourceWriter.println("presenter = GWT.create(" + customPresenter.getName() + ".class);");
+				viewCached = "presenter instanceof CachedPresenter && ((CachedPresenter<?>) presenter).isCached(token)";
+			}
+			else if (view.cache() != CachePolicy.NEVER){
+				viewCached = "((CachedPresenter<?>) presenter).isCached(token)";
 			}
 			else {
-				viewsInNeedOfPresenters.add(viewPage);
-				sourceWriter.println("presenter = (Presenter<?>) GWT.create("+viewPage.getType().getName()+"Presenter.class);");				
+				viewCached = "false";
 			}
-			sourceWriter.println("presentersMap.put(\""+view.value()+"\", presenter);");				
-			sourceWriter.outdent();
-			sourceWriter.println("}");
+			printTiming(sourceWriter, "timing", "end(NavigationPhase.PRESENTER)", "setViewCached(" + viewCached + ")", "start(NavigationPhase.GET_VIEW)");
 			sourceWriter.println("Widget widget = presenter.getView(token);");
+			printTiming(sourceWriter, "timing", "end(NavigationPhase.GET_VIEW)", "start(NavigationPhase.SHOW_VIEW)");
 			
 			Class<? extends URLInterceptor> urlInterceptor = view.urlInterceptor();
 			if (!URLInterceptor.class.equals(urlInterceptor)){
@@ -345,67 +485,356 @@ public class NavigationManagerGenerator extends Generator {
 				sourceWriter.println("currentInterceptor = null;");
 			}
 			
-			boolean usesViewContainer = view.usesViewContainer();
-			if (usesViewContainer && !viewContainers.isEmpty()){
-				Class<?> viewContainer = view.viewContainer();
-				HasViewPages hasViews;
-				if (HasViews.class.equals(viewContainer)){
-					hasViews = defaultViewContainerPage;
+			if (hasViews != null){
+				sourceWriter.println("showInContainer" + containerPages.indexOf(hasViews) + "(token, widget, navigation);");
+			}
+			else {
+				printAddToRoot(sourceWriter, "widget");
+				sourceWriter.println("shownToken = navigationToken;");
+				sourceWriter.println("onViewShown(token);");
+			}
+			printPrefetchWhenIdle(logger, sourceWriter, viewPage, viewPages);
+			if (!grouped){
+				sourceWriter.outdent();
+				sourceWriter.println("}");
+				sourceWriter.println("public void onFailure(Throwable reason) { GWT.log(\"Error on loading presenter with token: \"+token, reason); }");
+				sourceWriter.outdent();
+				sourceWriter.println("});");
+			}
+			
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+			
+			//only called after the code of the view is loaded
+			sourceWriter.println("private Presenter<?> getPresenter" + i + "() {");
+			sourceWriter.indent();
+			sourceWriter.println("Presenter<?> presenter = presentersMap.get(\""+view.value()+"\");");
+			sourceWriter.println("if (presenter == null) {");
+			sourceWriter.indent();
+			if (!Presenter.class.equals(customPresenter)){
+				sourceWriter.println("presenter = GWT.create(" + customPresenter.getName() + ".class);");
+			}
+			else {
+				viewsInNeedOfPresenters.add(viewPage);
+				sourceWriter.println("presenter = (Presenter<?>) GWT.create("+viewPage.getType().getName()+"Presenter.class);");				
+			}
+			sourceWriter.println("presentersMap.put(\""+view.value()+"\", presenter);");				
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("return presenter;");
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+		}
+		
+		for (int group = 0; group < fragmentGroups.size(); group++) {
+			String fragmentGroup = fragmentGroups.get(group);
+			sourceWriter.println("/** Method to load the code of all the presenters of the \"" + escape(fragmentGroup) + "\" group, with a single split point. */");
+			sourceWriter.println("private void loadFragmentGroup" + group + "(final int view, final URLToken token, final boolean preloadOnly, final int navigation) {");
+			sourceWriter.indent();
+			
+			sourceWriter.println("GWT.runAsync(" + getSplitPoint(fragmentGroup, viewPages) + ".class, new RunAsyncCallback() {");
+			sourceWriter.indent();
+			sourceWriter.println("public void onSuccess() {");
+			sourceWriter.indent();
+			sourceWriter.println("switch (view) {");
+			sourceWriter.indent();
+			for (int i = 0; i < viewPages.size(); i++) {
+				if (fragmentGroup.equals(viewPages.get(i).getView().fragmentGroup())){
+					sourceWriter.println("case " + i + ":");
+					sourceWriter.indent();
+					sourceWriter.println("showLoadedPresenter" + i + "(token, preloadOnly, navigation);");
+					sourceWriter.println("break;");
+					sourceWriter.outdent();
 				}
-				else{
-					hasViews = viewContainers.get(viewContainer.getName());
+			}
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("public void onFailure(Throwable reason) { GWT.log(\"Error on loading presenter with token: \"+token, reason); }");
+			sourceWriter.outdent();
+			sourceWriter.println("});");
+			
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+		}
+		
+		for (int k = 0; k < containerPages.size(); k++) {
+			HasViewPages hasViews = containerPages.get(k);
+			String name = hasViews.getType().getQualifiedSourceName();
+			
+			//the view waiting for the container to be loaded
+			sourceWriter.println("private URLToken pendingContainerToken" + k + ";");
+			sourceWriter.println("private Widget pendingContainerView" + k + ";");
+			sourceWriter.println("private int pendingContainerNavigation" + k + ";\n");
+			
+			sourceWriter.println("/** Method to show a view inside the " + name + ", waiting for the code of the container when needed. */");
+			sourceWriter.println("private void showInContainer" + k + "(final URLToken token, final Widget widget, final int navigation) {");
+			sourceWriter.indent();
+			sourceWriter.println("Presenter<?> containerPresenter = presentersMap.get(\"" + name + "\");");
+			sourceWriter.println("if (containerPresenter == null) {");
+			sourceWriter.indent();
+			sourceWriter.println("pendingContainerToken" + k + " = token;");
+			sourceWriter.println("pendingContainerView" + k + " = widget;");
+			sourceWriter.println("pendingContainerNavigation" + k + " = navigation;");
+			sourceWriter.println("loadContainer" + k + "();");
+			sourceWriter.println("return;");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("Widget container = containerPresenter.getView(token);");
+			sourceWriter.println("((" + HasViews.class.getName() + ") container).showView(token, widget);");
+			sourceWriter.println("if (container.getParent() == null || rootContainer instanceof " + HasViews.class.getName() + "){");
+			sourceWriter.indent();
+			printAddToRoot(sourceWriter, "container");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("shownToken = navigationToken;");
+			sourceWriter.println("onViewShown(token);");
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+			
+			sourceWriter.println("/** Method to load the code of the " + name + ". The presenter is kept until the cache is cleared. */");
+			sourceWriter.println("private void loadContainer" + k + "() {");
+			sourceWriter.indent();
+			sourceWriter.println("if (presentersMap.containsKey(\"" + name + "\")) {");
+			sourceWriter.indent();
+			sourceWriter.println("return;");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			if (hasViews.getContainer().initialDownload()){
+				sourceWriter.println("createContainer" + k + "();");
+			}
+			else {
+				//only the callback calls createContainer, so the code of the container goes to its own fragment
+				sourceWriter.println("GWT.runAsync(" + name + ".class, new RunAsyncCallback() {");
+				sourceWriter.indent();
+				sourceWriter.println("public void onSuccess() {");
+				sourceWriter.indent();
+				sourceWriter.println("createContainer" + k + "();");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
+				sourceWriter.println("public void onFailure(Throwable reason) { GWT.log(\"Error on loading the container " + name + "\", reason); }");
+				sourceWriter.outdent();
+				sourceWriter.println("});");
+			}
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+			
+			sourceWriter.println("private void createContainer" + k + "() {");
+			sourceWriter.indent();
+			sourceWriter.println("if (!presentersMap.containsKey(\"" + name + "\")) {");
+			sourceWriter.indent();
+			if (!Presenter.class.equals(hasViews.getContainer().customPresenter())){
+				sourceWriter.println("Presenter<?> containerPresenter = GWT.create(" + hasViews.getContainer().customPresenter().getName() + ".class);");
+			}
+			else {
+				containersInNeedOfPresenters.add(hasViews);
+				sourceWriter.println("Presenter<?> containerPresenter = (Presenter<?>) GWT.create(" + hasViews.getType().getName() + "Presenter.class);");
+			}
+			sourceWriter.println("presentersMap.put(\"" + name + "\", containerPresenter);");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.println("Widget view = pendingContainerView" + k + ";");
+			sourceWriter.println("if (view != null) {");
+			sourceWriter.indent();
+			sourceWriter.println("pendingContainerView" + k + " = null;");
+			sourceWriter.println("if (pendingContainerNavigation" + k + " == navigationCount) {");
+			sourceWriter.indent();
+			sourceWriter.println("showInContainer" + k + "(pendingContainerToken" + k + ", view, pendingContainerNavigation" + k + ");");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+		}
+		
+		sourceWriter.println("/** Method to track the page view and notify the listeners when the View of the current navigation is shown. */");
+		sourceWriter.println("private void onViewShown(URLToken token) {");
+		sourceWriter.indent();
+		//only the navigations that are actually shown are tracked, after the View is attached
+		sourceWriter.println("pageViewTracker.sendPageView(token.toString());");
+		sourceWriter.println("NavigationTiming timing = navigationTiming;");
+		sourceWriter.println("if (timing == null) {");
+		sourceWriter.indent();
+		sourceWriter.println("return;");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.println("navigationTiming = null;");
+		sourceWriter.println("timing.end(NavigationPhase.SHOW_VIEW);");
+		sourceWriter.println("for (NavigationListener listener : new ArrayList<>(navigationListeners)) {");
+		sourceWriter.indent();
+		sourceWriter.println("listener.onNavigation(timing);");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic void prefetch(String token) {");
+		sourceWriter.indent();
+		sourceWriter.println("switch (findView(tokenFactory.createToken(token))){");
+		sourceWriter.indent();
+		for (int i = 0; i < viewPages.size(); i++) {
+			ViewPage viewPage = viewPages.get(i);
+			sourceWriter.println("case " + i + ":");
+			sourceWriter.indent();
+			sourceWriter.println("ViewPrefetcher.prefetch(RunAsyncCode.runAsyncCode(" + getSplitPoint(viewPage, viewPages) + ".class));");
+			sourceWriter.println("break;");
+			sourceWriter.outdent();
+		}
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic void preload(final String token) {");
+		sourceWriter.indent();
+		//the code of the view is only downloaded when the browser is idle
+		sourceWriter.println("ViewPreloader.preload(new Scheduler.ScheduledCommand() {");
+		sourceWriter.indent();
+		sourceWriter.println("public void execute() {");
+		sourceWriter.indent();
+		sourceWriter.println("preloadNow(token);");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.outdent();
+		sourceWriter.println("});");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("private void preloadNow(String token) {");
+		sourceWriter.indent();
+		sourceWriter.println("final URLToken urlToken = tokenFactory.createToken(token);");
+		sourceWriter.println("switch (findView(urlToken)){");
+		sourceWriter.indent();
+		List<ViewPage> preloadedViews = new ArrayList<>();
+		for (int i = 0; i < viewPages.size(); i++) {
+			View view = viewPages.get(i).getView();
+			if (!canPreload(view)){
+				if (view.preload()){
+					logger.log(Type.WARN, "The " + View.class.getSimpleName() + " " + viewPages.get(i).getType().getQualifiedSourceName() 
+							+ " uses the CachePolicy.NEVER and cannot be preloaded.");
 				}
-				
-				if (hasViews == null){
-					logger.log(Type.ERROR, viewContainer.getName()+" is not a valid "+
-							ViewContainer.class.getSimpleName()+" for "+View.class.getSimpleName()+" "+viewPage.getType().getQualifiedSourceName()+".");
+				continue;
+			}
+			if (view.preload()){
+				if (!view.publicAccess()){
+					//the View would be created before the access of the user is known
+					logger.log(Type.ERROR, "The " + View.class.getSimpleName() + " " + viewPages.get(i).getType().getQualifiedSourceName() 
+							+ " is not public and cannot be preloaded at the start. Use NavigationManager.preload(String) after the user logs in.");
 					throw new UnableToCompleteException();
 				}
-				sourceWriter.println("Presenter<?> containerPresenter = presentersMap.get(\""+hasViews.getType().getQualifiedSourceName()+"\");");
-				sourceWriter.println("if (containerPresenter == null) {");
-				sourceWriter.indent();
-				if (!Presenter.class.equals(hasViews.getContainer().customPresenter())){
-					sourceWriter.println("containerPresenter = GWT.create("+hasViews.getContainer().customPresenter().getName()+".class);");
+				if (isPattern(view.value())){
+					//there are no values for the path parameters before the navigation
+					logger.log(Type.WARN, "The " + View.class.getSimpleName() + " " + viewPages.get(i).getType().getQualifiedSourceName() 
+							+ " uses a route pattern and cannot be preloaded at the start.");
 				}
 				else {
-					containersInNeedOfPresenters.add(hasViews);
-					sourceWriter.println("containerPresenter = (Presenter<?>) GWT.create("+hasViews.getType().getName()+"Presenter.class);");				
+					preloadedViews.add(viewPages.get(i));
 				}
-				sourceWriter.println("presentersMap.put(\""+hasViews.getType().getQualifiedSourceName()+"\", containerPresenter);");
+			}
+			sourceWriter.println("case " + i + ":");
+			sourceWriter.indent();
+			if (!view.publicAccess()){
+				//only preloaded when the user has access to the View, like at the navigation
+				sourceWriter.println("if (userPresenceManager != null) {");
+				sourceWriter.indent();
+				sourceWriter.println("userPresenceManager.isUserInAnyRole(urlToken, " + getRolesExpression(view) + ", new AsyncCallback<Boolean>(){");
+				sourceWriter.indent();
+				sourceWriter.println("@Override");
+				sourceWriter.println("public void onSuccess(Boolean allowed){");
+				sourceWriter.indent();
+				sourceWriter.println("if (allowed != null && allowed){");
+				sourceWriter.indent();
+				sourceWriter.println("showPresenter" + i + "(urlToken, true, navigationCount);");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
 				sourceWriter.outdent();
 				sourceWriter.println("}");
-				sourceWriter.println("Widget container = containerPresenter.getView(token);");
-				sourceWriter.println("(("+HasViews.class.getName()+") container).showView(token, widget);");
-				sourceWriter.println("if (container.getParent() == null){");
+				sourceWriter.println("@Override");
+				sourceWriter.println("public void onFailure(Throwable error){");
 				sourceWriter.indent();
-				sourceWriter.println("rootContainer.clear();");
-				sourceWriter.println("rootContainer.add(container);");
+				sourceWriter.println("GWT.log(\"Error checking the access to preload the view: \" + error, error);");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
+				sourceWriter.outdent();
+				sourceWriter.println("});");
+				sourceWriter.println("break;");
 				sourceWriter.outdent();
 				sourceWriter.println("}");
 			}
-			else {
-				sourceWriter.println("rootContainer.clear();");
-				sourceWriter.println("rootContainer.add(widget);");
-			}
+			sourceWriter.println("showPresenter" + i + "(urlToken, true, navigationCount);");
+			sourceWriter.println("break;");
 			sourceWriter.outdent();
-			sourceWriter.println("}");
-			sourceWriter.println("public void onFailure(Throwable reason) { GWT.log(\"Error on loading presenter with token: \"+token, reason); }");
-			sourceWriter.outdent();
-			sourceWriter.println("});");
-			
+		}
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic void preloadViews() {");
+		sourceWriter.indent();
+		if (!preloadedViews.isEmpty()){
+			//preloading downloads the code of the views as well
+			sourceWriter.println("if (!ViewPrefetcher.isPrefetchAllowed()) {");
+			sourceWriter.indent();
+			sourceWriter.println("return;");
 			sourceWriter.outdent();
-			sourceWriter.println("}\n");
+			sourceWriter.println("}");
+			for (ViewPage viewPage : preloadedViews) {
+				sourceWriter.println("preload(\"" + viewPage.getView().value() + "\");");
+			}
 		}
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
 		
 		sourceWriter.println("@Override\npublic void clearCache() {");
 		sourceWriter.indent();
+		sourceWriter.println("for (Presenter<?> presenter : presentersMap.values()) {");
+		sourceWriter.indent();
+		sourceWriter.println("releaseViews(presenter);");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
 		sourceWriter.println("presentersMap.clear();");
+		sourceWriter.println("shownToken = null;");
+		sourceWriter.println("invalidateAuthorization();");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic void refresh() {");
+		sourceWriter.indent();
+		sourceWriter.println("shownToken = null;");
+		sourceWriter.println("History.fireCurrentHistoryState();");
 		sourceWriter.outdent();
 		sourceWriter.println("}\n");
 		
 		sourceWriter.println("@Override\npublic void clearCache(String tokenId) {");
 		sourceWriter.indent();
-		sourceWriter.println("presentersMap.remove(tokenId);");
+		sourceWriter.println("releaseViews(presentersMap.remove(tokenId));");
+		sourceWriter.println("shownToken = null;");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic void invalidateAuthorization() {");
+		sourceWriter.indent();
+		//the View shown may not be allowed anymore, so the next navigation to its token checks it again
+		sourceWriter.println("shownToken = null;");
+		sourceWriter.println("if (userPresenceManager instanceof CachingUserPresenceManager) {");
+		sourceWriter.indent();
+		sourceWriter.println("((CachingUserPresenceManager) userPresenceManager).invalidateAuthorization();");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		//the cached views of the removed presenters must leave the global ViewCacheBudget
+		sourceWriter.println("private void releaseViews(Presenter<?> presenter) {");
+		sourceWriter.indent();
+		sourceWriter.println("if (presenter instanceof CachedPresenter) {");
+		sourceWriter.indent();
+		sourceWriter.println("((CachedPresenter<?>) presenter).clearViewCache();");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
 		sourceWriter.outdent();
 		sourceWriter.println("}\n");
 		
@@ -418,6 +847,7 @@ public class NavigationManagerGenerator extends Generator {
 		sourceWriter.println("@Override\npublic void setUserPresenceManager(UserPresenceManager umanager) {");
 		sourceWriter.indent();
 		sourceWriter.println("this.userPresenceManager = umanager;");
+		sourceWriter.println("shownToken = null;");
 		sourceWriter.outdent();
 		sourceWriter.println("}\n");
 		
@@ -427,12 +857,36 @@ public class NavigationManagerGenerator extends Generator {
 		sourceWriter.outdent();
 		sourceWriter.println("}\n");
 		
+		sourceWriter.println("@Override\npublic void addNavigationListener(NavigationListener listener) {");
+		sourceWriter.indent();
+		sourceWriter.println("navigationListeners.add(listener);");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic void removeNavigationListener(NavigationListener listener) {");
+		sourceWriter.indent();
+		sourceWriter.println("navigationListeners.remove(listener);");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
 		sourceWriter.println("@Override\npublic URLTokenFactory getURLTokenFactory() {");
 		sourceWriter.indent();
 		sourceWriter.println("return this.tokenFactory;");
 		sourceWriter.outdent();
 		sourceWriter.println("}\n");
 		
+		sourceWriter.println("@Override\npublic void setPageViewTracker(PageViewTracker tracker) {");
+		sourceWriter.indent();
+		sourceWriter.println("this.pageViewTracker = tracker == null ? new NoOpPageViewTracker() : tracker;");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic PageViewTracker getPageViewTracker() {");
+		sourceWriter.indent();
+		sourceWriter.println("return this.pageViewTracker;");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
 		sourceWriter.println("//View presenters");
 		for (ViewPage viewPage : viewsInNeedOfPresenters) {
 			sourceWriter.println("public static interface "+viewPage.getType().getName()+"Presenter extends AutoPresenter<"+
@@ -451,7 +905,226 @@ public class NavigationManagerGenerator extends Generator {
 		
 		context.commit(logger, writer);
 		
-		return factory.getCreatedClassName();
+		return fingerprint.newResult(factory.getCreatedClassName());
+	}
+	
+	/**
+	 * Prints the calls to the <code>NavigationTiming</code> of the current navigation, if it is measured.
+	 */
+	private void printTiming(SourceWriter sourceWriter, String timing, String... calls) {
+		sourceWriter.println("if (" + timing + " != null) {");
+		sourceWriter.indent();
+		for (String call : calls) {
+			sourceWriter.println(timing + "." + call + ";");
+		}
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+	}
+	
+	/**
+	 * Prints the code to show a widget at the root container. A root container implementing {@link HasViews}, like the
+	 * <code>ViewStackPanel</code>, decides by itself what to do with the previous widgets.
+	 */
+	private void printAddToRoot(SourceWriter sourceWriter, String widget) {
+		sourceWriter.println("if (rootContainer instanceof " + HasViews.class.getName() + ") {");
+		sourceWriter.indent();
+		sourceWriter.println("((" + HasViews.class.getName() + ") rootContainer).showView(token, " + widget + ");");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.println("else {");
+		sourceWriter.indent();
+		sourceWriter.println("rootContainer.clear();");
+		sourceWriter.println("rootContainer.add(" + widget + ");");
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+	}
+	
+	/**
+	 * Gets the ViewContainer the view is shown inside, or <code>null</code> if the view is added directly to the root container.
+	 */
+	private HasViewPages getViewContainer(TreeLogger logger, ViewPage viewPage, Map<String, HasViewPages> viewContainers, 
+			HasViewPages defaultViewContainerPage) throws UnableToCompleteException {
+		View view = viewPage.getView();
+		if (!view.usesViewContainer() || viewContainers.isEmpty()){
+			return null;
+		}
+		Class<?> viewContainer = view.viewContainer();
+		HasViewPages hasViews;
+		if (HasViews.class.equals(viewContainer)){
+			hasViews = defaultViewContainerPage;
+		}
+		else{
+			hasViews = viewContainers.get(viewContainer.getName());
+		}
+		
+		if (hasViews == null){
+			logger.log(Type.ERROR, viewContainer.getName()+" is not a valid "+
+					ViewContainer.class.getSimpleName()+" for "+View.class.getSimpleName()+" "+viewPage.getType().getQualifiedSourceName()+".");
+			throw new UnableToCompleteException();
+		}
+		return hasViews;
+	}
+	
+	/**
+	 * Gets the class that names the split point of the view. The views of a fragment group share the split point of the first
+	 * view of the group.
+	 */
+	private String getSplitPoint(ViewPage viewPage, List<ViewPage> viewPages) {
+		String fragmentGroup = viewPage.getView().fragmentGroup();
+		if (fragmentGroup.isEmpty()){
+			return viewPage.getType().getQualifiedSourceName();
+		}
+		return getSplitPoint(fragmentGroup, viewPages);
+	}
+	
+	private String getSplitPoint(String fragmentGroup, List<ViewPage> viewPages) {
+		for (ViewPage page : viewPages) {
+			if (fragmentGroup.equals(page.getView().fragmentGroup())){
+				return page.getType().getQualifiedSourceName();
+			}
+		}
+		throw new IllegalArgumentException("No view at the fragment group " + fragmentGroup);
+	}
+	
+	private void printPrefetchWhenIdle(TreeLogger logger, SourceWriter sourceWriter, ViewPage viewPage, List<ViewPage> viewPages) {
+		StringBuilder codes = new StringBuilder();
+		for (Class<?> prefetch : viewPage.getView().prefetch()) {
+			ViewPage target = null;
+			for (ViewPage page : viewPages) {
+				if (page.getType().getQualifiedBinaryName().equals(prefetch.getName())){
+					target = page;
+					break;
+				}
+			}
+			if (target == null){
+				logger.log(Type.WARN, prefetch.getName() + " is not a valid " + View.class.getSimpleName() + " to be prefetched by " 
+						+ viewPage.getType().getQualifiedSourceName() + ".");
+				continue;
+			}
+			if (codes.length() > 0){
+				codes.append(", ");
+			}
+			codes.append("RunAsyncCode.runAsyncCode(").append(getSplitPoint(target, viewPages)).append(".class)");
+		}
+		if (codes.length() > 0){
+			sourceWriter.println("ViewPrefetcher.prefetchWhenIdle(" + codes + ");");
+		}
+	}
+	
+	/**
+	 * Prints the method that finds the index of the view of a token: the static tokenIds are matched by a switch,
+	 * and the route patterns by a <code>RouteTrie</code>.
+	 */
+	private void printRoutes(TreeLogger logger, SourceWriter sourceWriter, List<ViewPage> viewPages) throws UnableToCompleteException {
+		Map<String, ViewPage> shapes = new HashMap<>();
+		StringBuilder routes = new StringBuilder();
+		for (int i = 0; i < viewPages.size(); i++) {
+			ViewPage viewPage = viewPages.get(i);
+			View view = viewPage.getView();
+			if (!isPattern(view.value())){
+				continue;
+			}
+			if (view.defaultView() || view.notFoundView()){
+				logger.log(Type.ERROR, "The default and not found " + View.class.getSimpleName() + "s cannot use route patterns: "
+						+ viewPage.getType().getQualifiedSourceName() + ".");
+				throw new UnableToCompleteException();
+			}
+			String[] segments = view.value().split("/", -1);
+			Set<String> variables = new HashSet<>();
+			StringBuilder shape = new StringBuilder();
+			for (String segment : segments) {
+				if (segment.startsWith("{") && segment.endsWith("}")){
+					String name = segment.substring(1, segment.length() - 1);
+					if (!isValidVariable(name) || !variables.add(name)){
+						logger.log(Type.ERROR, "Invalid or repeated path parameter " + segment + " at the route pattern " + view.value()
+								+ " of " + viewPage.getType().getQualifiedSourceName() + ".");
+						throw new UnableToCompleteException();
+					}
+					shape.append("{}");
+				}
+				else if (segment.isEmpty() || segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0){
+					logger.log(Type.ERROR, "Invalid segment \"" + segment + "\" at the route pattern " + view.value() + " of "
+							+ viewPage.getType().getQualifiedSourceName() + ". Path parameters must take whole segments, like customers/{id}/orders.");
+					throw new UnableToCompleteException();
+				}
+				else {
+					shape.append(segment);
+				}
+				shape.append('/');
+			}
+			ViewPage existing = shapes.put(shape.toString(), viewPage);
+			if (existing != null){
+				logger.log(Type.ERROR, "The route patterns of " + existing.getType().getQualifiedSourceName() + " and "
+						+ viewPage.getType().getQualifiedSourceName() + " match the same tokens.");
+				throw new UnableToCompleteException();
+			}
+			routes.append(".add(\"").append(escape(view.value())).append("\", ").append(i).append(")");
+		}
+		
+		if (routes.length() > 0){
+			sourceWriter.println("private final RouteTrie routes = new RouteTrie()" + routes + ";\n");
+		}
+		
+		sourceWriter.println("private int findView(URLToken token) {");
+		sourceWriter.indent();
+		sourceWriter.println("switch (token.getId()){");
+		sourceWriter.indent();
+		for (int i = 0; i < viewPages.size(); i++) {
+			View view = viewPages.get(i).getView();
+			if (isPattern(view.value())){
+				continue;
+			}
+			if (view.defaultView()){
+				sourceWriter.println("case \"\":");
+			}
+			sourceWriter.println("case \"" + escape(view.value()) + "\":");
+			sourceWriter.indent();
+			sourceWriter.println("return " + i + ";");
+			sourceWriter.outdent();
+		}
+		sourceWriter.println("default:");
+		sourceWriter.indent();
+		sourceWriter.println(routes.length() > 0 ? "return routes.match(token);" : "return -1;");
+		sourceWriter.outdent();
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+	}
+	
+	private boolean isPattern(String value){
+		return value.indexOf('{') >= 0 || value.indexOf('}') >= 0;
+	}
+	
+	private boolean isValidVariable(String name){
+		if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))){
+			return false;
+		}
+		for (int i = 1; i < name.length(); i++) {
+			if (!Character.isJavaIdentifierPart(name.charAt(i))){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private boolean canPreload(View view){
+		//custom presenters are preloaded by the same policy, since they are expected to keep the Views they create
+		return view.cache() != CachePolicy.NEVER;
+	}
+	
+	private String getRolesExpression(View view){
+		String[] roles = view.rolesAllowed();
+		if (roles == null || roles.length == 0){
+			return "new String[0]";
+		}
+		StringBuilder params = new StringBuilder("new String[]{ ");
+		String sep = "";
+		for (String role : roles){
+			params.append(sep).append("\"").append(role).append("\"");
+			sep = ", ";
+		}
+		return params.append(" }").toString();
 	}
 	
 	private boolean shouldForceEmptyConstructor(View view){
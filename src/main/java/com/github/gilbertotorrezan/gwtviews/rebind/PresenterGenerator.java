@@ -25,7 +25,6 @@
 package com.github.gilbertotorrezan.gwtviews.rebind;
 
 import java.io.PrintWriter;
-import java.util.Date;
 
 import com.github.gilbertotorrezan.gwtviews.client.AutoPresenter;
 import com.github.gilbertotorrezan.gwtviews.client.CachePolicy;
@@ -33,8 +32,9 @@ import com.github.gilbertotorrezan.gwtviews.client.CachedPresenter;
 import com.github.gilbertotorrezan.gwtviews.client.Presenter;
 import com.github.gilbertotorrezan.gwtviews.client.View;
 import com.github.gilbertotorrezan.gwtviews.client.ViewContainer;
-import com.google.gwt.core.ext.Generator;
 import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.IncrementalGenerator;
+import com.google.gwt.core.ext.RebindResult;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
@@ -48,17 +48,25 @@ import com.google.gwt.user.rebind.ClassSourceFileComposerFactory;
 import com.google.gwt.user.rebind.SourceWriter;
 
 /**
- * Class used by the code generator to create the default {@link Presenter}s of Views and ViewContainers.
+ * Class used by the code generator to create the default {@link Presenter}s of Views and ViewContainers. The generated types
+ * are reused by incremental compilations until the View, the ViewContainer or their injector is changed.
  * 
  * @author Gilberto Torrezan Filho
  *
  * @since v.1.0.0
  * @see AutoPresenter
  */
-public class PresenterGenerator extends Generator {
+public class PresenterGenerator extends IncrementalGenerator {
+	
+	private static final long VERSION_ID = 1L;
+	
+	@Override
+	public long getVersionId() {
+		return VERSION_ID;
+	}
 
 	@Override
-	public String generate(TreeLogger logger, GeneratorContext context, String typeName) throws UnableToCompleteException {
+	public RebindResult generateIncrementally(TreeLogger logger, GeneratorContext context, String typeName) throws UnableToCompleteException {
 
 		final TypeOracle typeOracle = context.getTypeOracle();
 		JClassType mainType = typeOracle.findType(typeName);
@@ -71,9 +79,29 @@ public class PresenterGenerator extends Generator {
 		name = name.substring(0, name.length() - "Presenter".length());
 		name = name + "_" + name + "PresenterImpl";
 
+		View view = viewType.getAnnotation(View.class);
+		ViewContainer viewContainer = viewType.getAnnotation(ViewContainer.class);
+		
+		Class<?> injector = view == null ? void.class : view.injector();
+		if (injector.equals(void.class)){
+			injector = viewContainer == null ? void.class : viewContainer.injector();
+		}
+		
+		GeneratorFingerprint fingerprint = new GeneratorFingerprint().add(viewType);
+		JClassType injectorType = injector.equals(void.class) ? null : typeOracle.findType(injector.getName());
+		if (injectorType != null){
+			fingerprint.add(injectorType);
+		}
+		
+		String resultTypeName = viewType.getPackage().getName() + "." + name;
+		RebindResult cached = fingerprint.tryReuse(context, resultTypeName);
+		if (cached != null){
+			return cached;
+		}
+		
 		PrintWriter writer = context.tryCreate(logger, viewType.getPackage().getName(), name);
 		if (writer == null){
-			return viewType.getPackage().getName() + "." + name;
+			return fingerprint.newResult(resultTypeName);
 		}
 
 		ClassSourceFileComposerFactory factory = new ClassSourceFileComposerFactory(viewType.getPackage().getName(), name);
@@ -88,14 +116,9 @@ public class PresenterGenerator extends Generator {
 		
 		factory.addAnnotationDeclaration("@Generated("
 				+ "value=\""+PresenterGenerator.class.getName()+"\", "
-				+ "date=\""+new Date()+"\", "
 				+ "comments=\"Generated by GWT-Views project.\")");
 		
-		View view = viewType.getAnnotation(View.class);
-		ViewContainer viewContainer = viewType.getAnnotation(ViewContainer.class);
-		
 		CachePolicy cache;
-		JClassType injectorType = null;
 		String injectorMethod = null;
 		if (view == null){
 			cache = CachePolicy.ALWAYS;
@@ -104,26 +127,64 @@ public class PresenterGenerator extends Generator {
 			cache = view.cache();
 		}
 		
-		if (cache == CachePolicy.SAME_URL){
+		//the single View of the CachePolicy.ALWAYS is cached too, so it counts towards the ViewCacheBudget
+		boolean cachedPresenter = cache == CachePolicy.SAME_URL || (cache == CachePolicy.ALWAYS && view != null);
+		if (cachedPresenter){
 			factory.setSuperclass(CachedPresenter.class.getName());
 		}
+		
+		int maxEntries = view == null ? 0 : view.maxEntries();
+		int expireAfterAccess = view == null ? 0 : view.expireAfterAccess();
+		if (maxEntries < 0 || expireAfterAccess < 0){
+			logger.log(Type.ERROR, "The maxEntries and expireAfterAccess of " + className + " must not be negative.");
+			throw new UnableToCompleteException();
+		}
+		if ((maxEntries > 0 || expireAfterAccess > 0) && cache != CachePolicy.SAME_URL){
+			logger.log(Type.WARN, "The maxEntries and expireAfterAccess of " + className + " have no effect with the CachePolicy." + cache + ".");
+		}
+		
+		boolean hasCacheKeyRule = view != null && (view.cacheKeyParameters().length > 0 || view.cacheKeyIgnoredParameters().length > 0 
+				|| view.cacheKeyIgnoreOrder() || view.cacheKeyDropEmpty());
+		if (hasCacheKeyRule && cache != CachePolicy.SAME_URL){
+			logger.log(Type.WARN, "The cache key properties of " + className + " have no effect with the CachePolicy." + cache + ".");
+			hasCacheKeyRule = false;
+		}
 
 		SourceWriter sourceWriter = factory.createSourceWriter(context, writer);
 
 		sourceWriter.println("//AUTO GENERATED FILE BY GWT-VIEWS AT " + getClass().getName() + ". DO NOT EDIT!\n");
-
-		if (cache == CachePolicy.ALWAYS){
-			sourceWriter.println("private Widget view; //the cached view");
+		
+		if (cache == CachePolicy.SAME_URL && (maxEntries > 0 || expireAfterAccess > 0)){
+			sourceWriter.println("public " + name + "() {");
+			sourceWriter.indent();
+			sourceWriter.println("super(" + maxEntries + ", " + expireAfterAccess + " * 1000L);");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
 		}
 		
-		Class<?> injector = view == null ? void.class : view.injector();
-		if (injector.equals(void.class)){
-			injector = viewContainer == null ? void.class : viewContainer.injector();
+		if (hasCacheKeyRule){
+			sourceWriter.println("private static final CacheKeyRule CACHE_KEY_RULE = new CacheKeyRule(" + toArrayExpression(view.cacheKeyParameters()) + ", " 
+					+ toArrayExpression(view.cacheKeyIgnoredParameters()) + ", " + view.cacheKeyIgnoreOrder() + ", " + view.cacheKeyDropEmpty() + ");");
+			sourceWriter.println("\n@Override\nprotected String getCacheKey(URLToken url) {");
+			sourceWriter.indent();
+			sourceWriter.println("return CACHE_KEY_RULE.getCacheKey(url);");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+		}
+
+		if (cache == CachePolicy.ALWAYS && cachedPresenter){
+			sourceWriter.println("\n@Override\nprotected String getCacheKey(URLToken url) {");
+			sourceWriter.indent();
+			sourceWriter.println("return \"\"; //the same View for all the URLs");
+			sourceWriter.outdent();
+			sourceWriter.println("}");
+		}
+		else if (cache == CachePolicy.ALWAYS){
+			sourceWriter.println("private Widget view; //the cached view");
 		}
 		
 		if (!injector.equals(void.class)){
 			try {
-				injectorType = typeOracle.findType(injector.getName());
 				injectorMethod = view != null ? view.injectorMethod() : viewContainer.injectorMethod();
 				injectorMethod = getInjectorMethod(logger, injectorType, injectorMethod, className);
 			}
@@ -133,7 +194,7 @@ public class PresenterGenerator extends Generator {
 			}
 		}
 		
-		if (cache == CachePolicy.SAME_URL){
+		if (cachedPresenter){
 			sourceWriter.println("\n@Override\npublic Widget createNewView(URLToken url) {");
 		}
 		else {
@@ -149,12 +210,18 @@ public class PresenterGenerator extends Generator {
 		break;
 		case ALWAYS: {
 			sourceWriter.println("//code for the CachePolicy.ALWAYS:");
-			sourceWriter.println("if (this.view == null) {");
-			sourceWriter.indent();
-			printInjectorMethod(sourceWriter, className, injectorType, injectorMethod);
-			sourceWriter.println("this.view = view;");
-			sourceWriter.outdent();
-			sourceWriter.println("}");
+			if (cachedPresenter){
+				//the CachedPresenter keeps the View under the same key for all the URLs
+				printInjectorMethod(sourceWriter, className, injectorType, injectorMethod);
+			}
+			else {
+				sourceWriter.println("if (this.view == null) {");
+				sourceWriter.indent();
+				printInjectorMethod(sourceWriter, className, injectorType, injectorMethod);
+				sourceWriter.println("this.view = view;");
+				sourceWriter.outdent();
+				sourceWriter.println("}");
+			}
 		}
 		break;
 		case SAME_URL: {
@@ -173,7 +240,18 @@ public class PresenterGenerator extends Generator {
 
 		context.commit(logger, writer);
 
-		return factory.getCreatedClassName();
+		return fingerprint.newResult(factory.getCreatedClassName());
+	}
+
+	private static String toArrayExpression(String[] values) {
+		StringBuilder builder = new StringBuilder("new String[]{");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0){
+				builder.append(", ");
+			}
+			builder.append('"').append(escape(values[i])).append('"');
+		}
+		return builder.append('}').toString();
 	}
 
 	private String getInjectorMethod(TreeLogger logger, JClassType injector, String injectorMethod, String className) throws UnableToCompleteException {
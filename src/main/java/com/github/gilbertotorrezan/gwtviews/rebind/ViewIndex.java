@@ -0,0 +1,216 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.gilbertotorrezan.gwtviews.client.View;
+import com.github.gilbertotorrezan.gwtviews.client.ViewContainer;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.TreeLogger.Type;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.google.gwt.core.ext.typeinfo.JRealClassType;
+import com.google.gwt.core.ext.typeinfo.TypeOracle;
+
+/**
+ * The index of the {@link View} and {@link ViewContainer} types of the application, written at javac time by the
+ * {@link ViewIndexProcessor} and read by the generators instead of scanning all the types at the {@link TypeOracle}.
+ * <p>
+ * The index is a resource with the qualified name of an annotated type per line. All the indexes at the classpath are
+ * merged, so libraries can ship their own Views. When there is no index (the annotation processing is disabled, for example)
+ * or the index has no default View, all the types are scanned as before.
+ * </p>
+ * <p>
+ * The types changed after the index of their own classpath root was written (like classes compiled without the annotation 
+ * processing after the last full build) are checked for the annotations as well, so a stale index never hides a new View.
+ * Types at roots without an index, like the compiled classes of a library without the processor, are checked when they are
+ * newer than the oldest index.
+ * </p>
+ * <p>
+ * The index only keeps the names of the types: the generators read the attributes of the annotations from the 
+ * {@link TypeOracle}, which has to load the types anyway.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+final class ViewIndex {
+	
+	private static final String RESOURCE = ViewIndexProcessor.RESOURCE;
+	
+	private ViewIndex() {
+	}
+	
+	/**
+	 * Gets the types that may have the {@link View} or {@link ViewContainer} annotations, sorted by name.
+	 */
+	static JClassType[] getAnnotatedTypes(TreeLogger logger, TypeOracle typeOracle) throws UnableToCompleteException {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if (classLoader == null){
+			classLoader = ViewIndex.class.getClassLoader();
+		}
+		Set<String> names = new LinkedHashSet<>();
+		Map<String, Long> indexTimes = read(logger, classLoader, names);
+		if (names.isEmpty()){
+			logger.log(Type.DEBUG, "No " + RESOURCE + " found at the classpath. Scanning all the types.");
+			return sortByName(typeOracle.getTypes());
+		}
+		long oldestIndexTime = indexTimes.isEmpty() ? 0 : Collections.min(indexTimes.values());
+		
+		Set<JClassType> types = new LinkedHashSet<>();
+		for (String name : names) {
+			JClassType type = typeOracle.findType(name);
+			if (type == null){
+				//removed after the index was written
+				logger.log(Type.DEBUG, name + " is at the " + RESOURCE + " but was not found.");
+				continue;
+			}
+			types.add(type);
+		}
+		
+		//the types older than all the indexes are skipped without looking for their classpath roots
+		int unlisted = 0;
+		for (JClassType type : typeOracle.getTypes()) {
+			if (!names.contains(type.getQualifiedSourceName()) && isChangedAfter(type, oldestIndexTime) 
+					&& isChangedAfter(type, getIndexTime(classLoader, type, indexTimes)) && isAnnotated(type)){
+				logger.log(Type.DEBUG, type.getQualifiedSourceName() + " was changed after the " + RESOURCE + " was written.");
+				types.add(type);
+				unlisted++;
+			}
+		}
+		if (unlisted > 0){
+			logger.log(Type.INFO, unlisted + " annotated types are not at the " + RESOURCE + ". Check if the annotation processing is enabled "
+					+ "when compiling the application.");
+		}
+		
+		boolean hasDefaultView = false;
+		for (JClassType type : types) {
+			View view = type.getAnnotation(View.class);
+			hasDefaultView |= view != null && view.defaultView();
+		}
+		if (!hasDefaultView){
+			logger.log(Type.INFO, "The " + RESOURCE + " at the classpath has no default " + View.class.getSimpleName() 
+					+ ". Scanning all the types. Check if the annotation processing is enabled when compiling the application.");
+			return sortByName(typeOracle.getTypes());
+		}
+		
+		return sortByName(types.toArray(new JClassType[types.size()]));
+	}
+	
+	/**
+	 * Sorts the types by name, so the generated code doesn't depend on the order of the indexes nor on whether they were
+	 * used at all.
+	 */
+	private static JClassType[] sortByName(JClassType[] types) {
+		JClassType[] result = Arrays.copyOf(types, types.length);
+		Arrays.sort(result, new Comparator<JClassType>() {
+			@Override
+			public int compare(JClassType o1, JClassType o2) {
+				return o1.getQualifiedSourceName().compareTo(o2.getQualifiedSourceName());
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Gets the time the index at the classpath root of the compiled type was written.
+	 * 
+	 * @return The time of the index, or <code>0</code> when the root has no index or the compiled type was not found
+	 */
+	private static long getIndexTime(ClassLoader classLoader, JClassType type, Map<String, Long> indexTimes) {
+		JClassType topLevel = type;
+		while (topLevel.getEnclosingType() != null){
+			topLevel = topLevel.getEnclosingType();
+		}
+		URL url = classLoader.getResource(topLevel.getQualifiedBinaryName().replace('.', '/') + ".class");
+		if (url == null){
+			return 0;
+		}
+		String location = url.toString();
+		for (Entry<String, Long> index : indexTimes.entrySet()) {
+			if (location.startsWith(index.getKey())){
+				return index.getValue();
+			}
+		}
+		return 0;
+	}
+	
+	private static boolean isChangedAfter(JClassType type, long time) {
+		if (time <= 0 || !(type instanceof JRealClassType)){
+			//unknown times
+			return true;
+		}
+		return ((JRealClassType) type).getLastModifiedTime() >= time;
+	}
+	
+	private static boolean isAnnotated(JClassType type) {
+		return type.isAnnotationPresent(View.class) || type.isAnnotationPresent(ViewContainer.class);
+	}
+	
+	/**
+	 * Reads all the indexes at the classpath.
+	 * 
+	 * @return The time each index was written, by the location of its classpath root. Indexes with unknown times are left out
+	 */
+	private static Map<String, Long> read(TreeLogger logger, ClassLoader classLoader, Set<String> names) throws UnableToCompleteException {
+		Map<String, Long> indexTimes = new LinkedHashMap<>();
+		try {
+			Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+			while (resources.hasMoreElements()){
+				URL url = resources.nextElement();
+				URLConnection connection = url.openConnection();
+				long lastModified = connection.getLastModified();
+				String location = url.toString();
+				if (lastModified > 0 && location.endsWith(RESOURCE)){
+					indexTimes.put(location.substring(0, location.length() - RESOURCE.length()), lastModified);
+				}
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8"))){
+					ViewIndexProcessor.readNames(reader, names);
+				}
+			}
+		}
+		catch (IOException e) {
+			logger.log(Type.ERROR, "Error reading the " + RESOURCE + ": " + e, e);
+			throw new UnableToCompleteException();
+		}
+		return indexTimes;
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.github.gilbertotorrezan.gwtviews.client.View;
+import com.github.gilbertotorrezan.gwtviews.client.ViewContainer;
+
+/**
+ * Annotation processor that writes the {@link ViewIndex} with the {@link View} and {@link ViewContainer} types compiled by javac.
+ * It is registered as a service, so it runs automatically when the GWT-Views jar is at the classpath of the compiler.
+ * <p>
+ * When only some of the sources are compiled (by an IDE, for example), the types of the previous index that still
+ * have the annotations are kept.
+ * </p>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@SupportedAnnotationTypes({ ViewIndexProcessor.VIEW, ViewIndexProcessor.VIEW_CONTAINER })
+public class ViewIndexProcessor extends AbstractProcessor {
+	
+	//the names are used instead of the annotation classes, so the processor doesn't load any GWT class
+	static final String VIEW = "com.github.gilbertotorrezan.gwtviews.client.View";
+	static final String VIEW_CONTAINER = "com.github.gilbertotorrezan.gwtviews.client.ViewContainer";
+	
+	/**
+	 * The location of the index at the classpath.
+	 */
+	static final String RESOURCE = "META-INF/gwt-views/views.index";
+	
+	private final Set<String> names = new TreeSet<>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement){
+					names.add(((TypeElement) element).getQualifiedName().toString());
+				}
+			}
+		}
+		if (roundEnv.processingOver() && !names.isEmpty()){
+			try {
+				readPreviousIndex();
+				writeIndex();
+			}
+			catch (IOException e) {
+				processingEnv.getMessager().printMessage(Kind.ERROR, "Error writing the " + RESOURCE + ": " + e);
+			}
+		}
+		return false;
+	}
+	
+	private void readPreviousIndex() {
+		Set<String> previous = new TreeSet<>();
+		try {
+			FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), "UTF-8"))){
+				readNames(reader, previous);
+			}
+		}
+		catch (IOException e) {
+			//there is no previous index
+			return;
+		}
+		for (String name : previous) {
+			if (isAnnotated(processingEnv.getElementUtils().getTypeElement(name))){
+				names.add(name);
+			}
+		}
+	}
+	
+	private boolean isAnnotated(TypeElement type) {
+		if (type == null){
+			return false;
+		}
+		for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+			String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+			if (name.equals(VIEW) || name.equals(VIEW_CONTAINER)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads the names of an index, ignoring the empty lines and the comments starting with <code>#</code>.
+	 */
+	static void readNames(BufferedReader reader, Set<String> names) throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null){
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#")){
+				names.add(line);
+			}
+		}
+	}
+	
+	private void writeIndex() throws IOException {
+		FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+		try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), "UTF-8")){
+			writer.write("# Generated by " + ViewIndexProcessor.class.getName() + ". DO NOT EDIT!\n");
+			for (String name : names) {
+				writer.write(name);
+				writer.write('\n');
+			}
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.io.PrintWriter;
+
+import com.github.gilbertotorrezan.gwtviews.client.Presenter;
+import com.github.gilbertotorrezan.gwtviews.client.View;
+import com.github.gilbertotorrezan.gwtviews.client.ViewParameters;
+import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.IncrementalGenerator;
+import com.google.gwt.core.ext.RebindResult;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.TreeLogger.Type;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.google.gwt.core.ext.typeinfo.TypeOracle;
+import com.google.gwt.user.rebind.ClassSourceFileComposerFactory;
+import com.google.gwt.user.rebind.SourceWriter;
+
+/**
+ * Class used by the code generator to create the implementations of the {@link ViewParameters} interfaces. The generated types
+ * are reused by incremental compilations until the interface or its View is changed.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ * @see View#parameters()
+ */
+public class ViewParametersGenerator extends IncrementalGenerator {
+	
+	private static final long VERSION_ID = 1L;
+	
+	@Override
+	public long getVersionId() {
+		return VERSION_ID;
+	}
+
+	@Override
+	public RebindResult generateIncrementally(TreeLogger logger, GeneratorContext context, String typeName) throws UnableToCompleteException {
+		
+		final TypeOracle typeOracle = context.getTypeOracle();
+		JClassType mainType = typeOracle.findType(typeName);
+		
+		String name = mainType.getName().replace('.', '_') + "Impl";
+		String packageName = mainType.getPackage().getName();
+		
+		JClassType viewType = findViewType(logger, typeOracle, mainType);
+		if (viewType == null){
+			logger.log(Type.ERROR, mainType.getQualifiedSourceName() + " is not used as the parameters of any " + View.class.getSimpleName() + ".");
+			throw new UnableToCompleteException();
+		}
+		
+		//the inherited getters and setters are part of the parameters
+		GeneratorFingerprint fingerprint = new GeneratorFingerprint().add(viewType);
+		for (JClassType type : mainType.getFlattenedSupertypeHierarchy()) {
+			fingerprint.add(type);
+		}
+		
+		String resultTypeName = packageName + "." + name;
+		RebindResult cached = fingerprint.tryReuse(context, resultTypeName);
+		if (cached != null){
+			return cached;
+		}
+		
+		PrintWriter writer = context.tryCreate(logger, packageName, name);
+		if (writer == null){
+			return fingerprint.newResult(resultTypeName);
+		}
+		
+		View view = viewType.getAnnotation(View.class);
+		ViewParametersSchema.checkView(logger, viewType.getQualifiedSourceName(), view.value());
+		ViewParametersSchema schema = ViewParametersSchema.read(logger, mainType);
+		
+		ClassSourceFileComposerFactory factory = new ClassSourceFileComposerFactory(packageName, name);
+		factory.addImplementedInterface(mainType.getQualifiedSourceName());
+		
+		factory.addImport(Presenter.class.getPackage().getName()+".*");
+		factory.addImport("javax.annotation.Generated");
+		
+		factory.addAnnotationDeclaration("@Generated("
+				+ "value=\""+ViewParametersGenerator.class.getName()+"\", "
+				+ "comments=\"Generated by GWT-Views project.\")");
+		
+		SourceWriter sourceWriter = factory.createSourceWriter(context, writer);
+		
+		sourceWriter.println("//AUTO GENERATED FILE BY GWT-VIEWS AT " + getClass().getName() + ". DO NOT EDIT!\n");
+		
+		schema.write(sourceWriter, view.value());
+		
+		sourceWriter.outdent();
+		sourceWriter.println("}");
+		
+		context.commit(logger, writer);
+		
+		return fingerprint.newResult(factory.getCreatedClassName());
+	}
+	
+	/**
+	 * Finds the View that declares the parameters type, looking first at the enclosing type (the most common case),
+	 * and then at all the Views of the application.
+	 */
+	private JClassType findViewType(TreeLogger logger, TypeOracle typeOracle, JClassType parametersType) throws UnableToCompleteException {
+		JClassType enclosing = parametersType.getEnclosingType();
+		if (enclosing != null && declares(enclosing, parametersType)){
+			return enclosing;
+		}
+		for (JClassType type : ViewIndex.getAnnotatedTypes(logger, typeOracle)) {
+			if (declares(type, parametersType)){
+				return type;
+			}
+		}
+		return null;
+	}
+	
+	private boolean declares(JClassType type, JClassType parametersType) {
+		View view = type.getAnnotation(View.class);
+		return view != null && view.parameters().getName().equals(parametersType.getQualifiedBinaryName());
+	}
+
+}
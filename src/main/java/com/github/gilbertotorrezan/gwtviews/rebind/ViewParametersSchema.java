@@ -0,0 +1,487 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.gilbertotorrezan.gwtviews.client.Parameter;
+import com.github.gilbertotorrezan.gwtviews.client.View;
+import com.github.gilbertotorrezan.gwtviews.client.ViewParameters;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.TreeLogger.Type;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.google.gwt.core.ext.typeinfo.JEnumConstant;
+import com.google.gwt.core.ext.typeinfo.JEnumType;
+import com.google.gwt.core.ext.typeinfo.JMethod;
+import com.google.gwt.core.ext.typeinfo.JParameterizedType;
+import com.google.gwt.core.ext.typeinfo.JPrimitiveType;
+import com.google.gwt.core.ext.typeinfo.JType;
+import com.google.gwt.user.rebind.SourceWriter;
+
+/**
+ * The parameters declared by a {@link ViewParameters} interface, validated at compile time. Used by the 
+ * {@link ViewParametersGenerator} to write the implementation of the interface, and by the {@link NavigationManagerGenerator}
+ * to report errors at the declaration of the parameters of all {@link View}s.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+class ViewParametersSchema {
+	
+	private enum Kind {
+		STRING, INT, LONG, DOUBLE, BOOLEAN, ENUM, DATE, LIST;
+	}
+	
+	private static class Property {
+		private String parameterName;
+		private String fieldName;
+		private Kind kind;
+		private JType type;
+		private JMethod getter;
+		private JMethod setter;
+		/** The Java expression of the default value. */
+		private String defaultExpression;
+	}
+	
+	private final JClassType type;
+	private final List<Property> properties;
+	
+	private ViewParametersSchema(JClassType type, List<Property> properties) {
+		this.type = type;
+		this.properties = properties;
+	}
+	
+	/**
+	 * Reads and validates the parameters declared by the type. All the errors found are logged before failing.
+	 * 
+	 * @param logger The logger used to report the errors
+	 * @param type The {@link ViewParameters} interface
+	 * @return The validated parameters
+	 * @throws UnableToCompleteException When any parameter is invalid
+	 */
+	public static ViewParametersSchema read(TreeLogger logger, JClassType type) throws UnableToCompleteException {
+		boolean valid = true;
+		if (type.isInterface() == null || type.getQualifiedSourceName().equals(ViewParameters.class.getCanonicalName())){
+			logger.log(Type.ERROR, type.getQualifiedSourceName() + " must be an interface that extends " + ViewParameters.class.getSimpleName() + ".");
+			throw new UnableToCompleteException();
+		}
+		
+		Map<String, Property> byProperty = new LinkedHashMap<>();
+		List<JMethod> setters = new ArrayList<>();
+		for (JMethod method : type.getInheritableMethods()) {
+			String declaringType = method.getEnclosingType().getQualifiedSourceName();
+			if (declaringType.equals(ViewParameters.class.getCanonicalName()) || declaringType.equals(Object.class.getName())){
+				continue;
+			}
+			String name = method.getName();
+			int parameterCount = method.getParameters().length;
+			
+			if (parameterCount == 0 && name.length() > 3 && name.startsWith("get") && method.getReturnType() != JPrimitiveType.VOID){
+				valid &= addGetter(logger, byProperty, method, name.substring(3));
+			}
+			else if (parameterCount == 0 && name.length() > 2 && name.startsWith("is") && method.getReturnType() == JPrimitiveType.BOOLEAN){
+				valid &= addGetter(logger, byProperty, method, name.substring(2));
+			}
+			else if (parameterCount == 1 && name.length() > 3 && name.startsWith("set") && 
+					(method.getReturnType() == JPrimitiveType.VOID || method.getReturnType() == type)){
+				setters.add(method);
+			}
+			else {
+				logger.log(Type.ERROR, "The method " + name + " of " + type.getQualifiedSourceName() + " is not a getter or a setter of a parameter.");
+				valid = false;
+			}
+		}
+		
+		for (JMethod setter : setters) {
+			Property property = byProperty.get(setter.getName().substring(3));
+			JType setterType = setter.getParameters()[0].getType();
+			if (property == null){
+				logger.log(Type.ERROR, "The setter " + setter.getName() + " of " + type.getQualifiedSourceName() + " has no matching getter.");
+				valid = false;
+			}
+			else if (!isSameType(setterType, property.type)){
+				logger.log(Type.ERROR, "The setter " + setter.getName() + " of " + type.getQualifiedSourceName() + " expects a " + 
+						setterType.getParameterizedQualifiedSourceName() + ", but the getter returns a " + 
+						property.type.getParameterizedQualifiedSourceName() + ".");
+				valid = false;
+			}
+			else {
+				property.setter = setter;
+			}
+		}
+		
+		Map<String, Property> byParameterName = new HashMap<>();
+		for (Property property : byProperty.values()) {
+			Property other = byParameterName.put(property.parameterName, property);
+			if (other != null){
+				logger.log(Type.ERROR, "The parameter \"" + property.parameterName + "\" is declared more than once at " + type.getQualifiedSourceName() + ".");
+				valid = false;
+			}
+		}
+		
+		if (!valid){
+			throw new UnableToCompleteException();
+		}
+		return new ViewParametersSchema(type, new ArrayList<>(byProperty.values()));
+	}
+	
+	/**
+	 * Checks if the View can declare parameters. Views with route patterns can't, since the tokens written by the parameters
+	 * have no values for the path parameters of the pattern.
+	 * 
+	 * @param logger The logger used to report the error
+	 * @param viewType The name of the {@link View}
+	 * @param viewId The {@link View#value()} of the View
+	 * @throws UnableToCompleteException When the View uses a route pattern
+	 */
+	public static void checkView(TreeLogger logger, String viewType, String viewId) throws UnableToCompleteException {
+		if (viewId.indexOf('{') >= 0 || viewId.indexOf('}') >= 0){
+			logger.log(Type.ERROR, "The " + View.class.getSimpleName() + " " + viewType + " uses the route pattern \"" + viewId + "\" and cannot declare "
+					+ ViewParameters.class.getSimpleName() + ": the tokens written by the parameters would have no values for the path parameters. "
+					+ "Use URLToken.getPathParameter(String) to read them instead.");
+			throw new UnableToCompleteException();
+		}
+	}
+	
+	private static boolean addGetter(TreeLogger logger, Map<String, Property> byProperty, JMethod getter, String propertyName) {
+		String typeName = getter.getEnclosingType().getQualifiedSourceName();
+		Property property = new Property();
+		property.getter = getter;
+		property.type = getter.getReturnType();
+		property.fieldName = Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1);
+		property.parameterName = property.fieldName;
+		property.kind = kindOf(property.type);
+		
+		if (property.kind == null){
+			logger.log(Type.ERROR, "The parameter " + propertyName + " of " + typeName + " has an unsupported type: " + 
+					property.type.getQualifiedSourceName() + ". Use String, int, long, double, boolean, enums, Date or List<String>.");
+			return false;
+		}
+		
+		String defaultValue = "";
+		Parameter annotation = getter.getAnnotation(Parameter.class);
+		if (annotation != null){
+			if (!annotation.value().isEmpty()){
+				property.parameterName = annotation.value();
+			}
+			defaultValue = annotation.defaultValue();
+		}
+		
+		String name = property.parameterName;
+		if (name.indexOf('&') >= 0 || name.indexOf('=') >= 0 || name.indexOf('\'') >= 0){
+			logger.log(Type.ERROR, "The parameter name \"" + name + "\" of " + typeName + " can't contain '&', '=' or quotes.");
+			return false;
+		}
+		
+		property.defaultExpression = defaultExpression(property, defaultValue);
+		if (property.defaultExpression == null){
+			logger.log(Type.ERROR, "The default value \"" + defaultValue + "\" of the parameter " + name + " of " + typeName + 
+					" is not a valid " + property.type.getSimpleSourceName() + ".");
+			return false;
+		}
+		
+		if (byProperty.containsKey(propertyName)){
+			logger.log(Type.ERROR, "The property " + propertyName + " of " + typeName + " has more than one getter.");
+			return false;
+		}
+		byProperty.put(propertyName, property);
+		return true;
+	}
+	
+	private static Kind kindOf(JType type) {
+		if (type == JPrimitiveType.INT){
+			return Kind.INT;
+		}
+		if (type == JPrimitiveType.LONG){
+			return Kind.LONG;
+		}
+		if (type == JPrimitiveType.DOUBLE){
+			return Kind.DOUBLE;
+		}
+		if (type == JPrimitiveType.BOOLEAN){
+			return Kind.BOOLEAN;
+		}
+		if (type.isEnum() != null){
+			return Kind.ENUM;
+		}
+		String name = type.getQualifiedSourceName();
+		if (name.equals(String.class.getName())){
+			return Kind.STRING;
+		}
+		if (name.equals(java.util.Date.class.getName())){
+			return Kind.DATE;
+		}
+		JParameterizedType parameterized = type.isParameterized();
+		if (parameterized != null && parameterized.getBaseType().getQualifiedSourceName().equals(List.class.getName()) && 
+				parameterized.getTypeArgs()[0].getQualifiedSourceName().equals(String.class.getName())){
+			return Kind.LIST;
+		}
+		return null;
+	}
+	
+	/**
+	 * @return The Java expression of the default value, or <code>null</code> if the value is not valid for the type
+	 */
+	private static String defaultExpression(Property property, String value) {
+		try {
+			switch (property.kind) {
+			case STRING:
+				return value.isEmpty() ? "null" : quote(value);
+			case INT:
+				return value.isEmpty() ? "0" : String.valueOf(Integer.parseInt(value));
+			case LONG:
+				return value.isEmpty() ? "0L" : Long.parseLong(value) + "L";
+			case DOUBLE:
+				if (value.isEmpty()){
+					return "0.0";
+				}
+				double d = Double.parseDouble(value);
+				if (Double.isNaN(d)){
+					return "Double.NaN";
+				}
+				if (Double.isInfinite(d)){
+					return d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+				}
+				return String.valueOf(d);
+			case BOOLEAN:
+				return String.valueOf(Boolean.parseBoolean(value));
+			case ENUM:
+				if (value.isEmpty()){
+					return "null";
+				}
+				JEnumType enumType = property.type.isEnum();
+				for (JEnumConstant constant : enumType.getEnumConstants()) {
+					if (constant.getName().equals(value)){
+						return enumType.getQualifiedSourceName() + "." + value;
+					}
+				}
+				return null;
+			case DATE:
+				return value.isEmpty() ? "null" : "new java.util.Date(" + Long.parseLong(value) + "L)";
+			case LIST:
+				return listExpression(value);
+			}
+		}
+		catch (NumberFormatException e) {
+			//invalid default value
+		}
+		return null;
+	}
+	
+	/**
+	 * Checks if the types are the same, including the type arguments: a <code>List&lt;Integer&gt;</code> is not a 
+	 * <code>List&lt;String&gt;</code>.
+	 */
+	static boolean isSameType(JType type, JType other) {
+		return type.getParameterizedQualifiedSourceName().equals(other.getParameterizedQualifiedSourceName());
+	}
+	
+	/**
+	 * @return The Java expression of the default value of a list parameter, in the same form it is written to the token
+	 */
+	static String listExpression(String value) {
+		if (value.isEmpty()){
+			return "java.util.Collections.<String>emptyList()";
+		}
+		//the same escapes of URLToken.getParameterAsList: a\,b is a single item, and a lone \ is a single empty item
+		List<String> items = new ArrayList<>();
+		StringBuilder item = new StringBuilder();
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char ch = value.charAt(i);
+			if (ch == '\\'){
+				if (i + 1 < length){
+					item.append(value.charAt(++i));
+				}
+			}
+			else if (ch == ','){
+				items.add(item.toString());
+				item.setLength(0);
+			}
+			else {
+				item.append(ch);
+			}
+		}
+		items.add(item.toString());
+		
+		StringBuilder expression = new StringBuilder();
+		for (String each : items) {
+			expression.append(expression.length() == 0 ? "" : ", ").append(quote(each));
+		}
+		return "java.util.Collections.unmodifiableList(java.util.Arrays.asList(" + expression + "))";
+	}
+	
+	private static String quote(String value) {
+		StringBuilder builder = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			if (ch == '"' || ch == '\\'){
+				builder.append('\\');
+			}
+			builder.append(ch);
+		}
+		return builder.append('"').toString();
+	}
+	
+	/**
+	 * Writes the body of the implementation of the {@link ViewParameters} interface.
+	 * 
+	 * @param sourceWriter The writer of the class
+	 * @param viewId The {@link View#value()} of the View that declares these parameters
+	 */
+	public void write(SourceWriter sourceWriter, String viewId) {
+		for (Property property : properties) {
+			sourceWriter.println("private " + property.type.getParameterizedQualifiedSourceName() + " " + property.fieldName + " = " + 
+					property.defaultExpression + ";");
+		}
+		sourceWriter.println();
+		
+		for (Property property : properties) {
+			sourceWriter.println("@Override\npublic " + property.type.getParameterizedQualifiedSourceName() + " " + property.getter.getName() + "() {");
+			sourceWriter.indent();
+			sourceWriter.println("return this." + property.fieldName + ";");
+			sourceWriter.outdent();
+			sourceWriter.println("}\n");
+			
+			if (property.setter != null){
+				boolean chained = property.setter.getReturnType() != JPrimitiveType.VOID;
+				sourceWriter.println("@Override\npublic " + (chained ? type.getQualifiedSourceName() : "void") + " " + property.setter.getName() + "(" + 
+						property.type.getParameterizedQualifiedSourceName() + " value) {");
+				sourceWriter.indent();
+				sourceWriter.println(setterStatement("this." + property.fieldName, property.type.isPrimitive() != null, property.defaultExpression));
+				if (chained){
+					sourceWriter.println("return this;");
+				}
+				sourceWriter.outdent();
+				sourceWriter.println("}\n");
+			}
+		}
+		
+		sourceWriter.println("@Override\npublic void readFrom(URLToken token) {");
+		sourceWriter.indent();
+		for (Property property : properties) {
+			String name = quote(property.parameterName);
+			String field = "this." + property.fieldName;
+			String def = property.defaultExpression;
+			switch (property.kind) {
+			case STRING:
+				sourceWriter.println(field + " = token.getParameter(" + name + ", " + def + ");");
+				break;
+			case INT:
+				sourceWriter.println(field + " = token.getParameterAsInt(" + name + ", " + def + ");");
+				break;
+			case LONG:
+				sourceWriter.println(field + " = token.getParameterAsLong(" + name + ", " + def + ");");
+				break;
+			case DOUBLE:
+				sourceWriter.println(field + " = token.getParameterAsDouble(" + name + ", " + def + ");");
+				break;
+			case BOOLEAN:
+				sourceWriter.println(field + " = token.getParameterAsFlag(" + name + ", " + def + ");");
+				break;
+			case ENUM:
+				sourceWriter.println(field + " = token.getParameterAsEnum(" + name + ", " + property.type.getQualifiedSourceName() + ".class, " + def + ");");
+				break;
+			case DATE:
+				sourceWriter.println(field + " = token.getParameterAsDate(" + name + ", " + def + ");");
+				break;
+			case LIST:
+				sourceWriter.println(field + " = token.containsParameter(" + name + ") ? token.getParameterAsList(" + name + ") : " + def + ";");
+				break;
+			}
+		}
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic URLToken toToken() {");
+		sourceWriter.indent();
+		sourceWriter.println("return new URLToken(toString());");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+		
+		sourceWriter.println("@Override\npublic String toString() {");
+		sourceWriter.indent();
+		sourceWriter.println("StringBuilder builder = new StringBuilder(" + quote(viewId) + ");");
+		for (Property property : properties) {
+			String field = "this." + property.fieldName;
+			String def = property.defaultExpression;
+			String prefix = quote("&" + property.parameterName + "=");
+			switch (property.kind) {
+			case INT:
+			case LONG:
+			case BOOLEAN:
+				sourceWriter.println("if (" + field + " != " + def + ") builder.append(" + prefix + ").append(" + field + ");");
+				break;
+			case DOUBLE:
+				sourceWriter.println("if (Double.compare(" + field + ", " + def + ") != 0) builder.append(" + prefix + ").append(" + field + ");");
+				break;
+			case ENUM:
+				sourceWriter.println("if (" + differsFromDefault(field, def) + ") builder.append(" + prefix + ").append(" + field + ".name());");
+				break;
+			case DATE:
+				sourceWriter.println("if (" + differsFromDefault(field, def) + ") builder.append(" + prefix + ").append(" + field + ".getTime());");
+				break;
+			case STRING:
+				sourceWriter.println("if (" + differsFromDefault(field, def) + ") URLToken.appendParameter(builder, " + 
+						quote(property.parameterName) + ", " + field + ");");
+				break;
+			case LIST:
+				sourceWriter.println("if (" + differsFromDefault(field, def) + ") URLToken.appendListParameter(builder, " + 
+						quote(property.parameterName) + ", " + field + ");");
+				break;
+			}
+		}
+		sourceWriter.println("return builder.toString();");
+		sourceWriter.outdent();
+		sourceWriter.println("}\n");
+	}
+	
+	/**
+	 * @return The condition to write a parameter that is not a primitive, when its value differs from the default
+	 */
+	static String differsFromDefault(String field, String def) {
+		if ("null".equals(def)) {
+			return field + " != null";
+		}
+		return field + " != null && !" + field + ".equals(" + def + ")";
+	}
+	
+	/**
+	 * @return The statement that sets the value of a parameter at the setter
+	 */
+	static String setterStatement(String field, boolean primitive, String def) {
+		if (primitive || "null".equals(def)){
+			return field + " = value;";
+		}
+		//the token can't tell a null value from a missing parameter, so null restores the default
+		return field + " = value == null ? " + def + " : value;";
+	}
+	
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class CacheKeyRuleTest {
+	
+	private static final String[] NONE = new String[0];
+	
+	@Test
+	public void testNoRules() {
+		CacheKeyRule rule = new CacheKeyRule(NONE, NONE, false, false);
+		Assert.assertEquals("orders&b=1&a", rule.getCacheKey(new URLToken("orders&b=1&a")));
+		Assert.assertEquals("orders", rule.getCacheKey(new URLToken("orders")));
+	}
+	
+	@Test
+	public void testIncludedParameters() {
+		CacheKeyRule rule = new CacheKeyRule(new String[]{"id", "tab"}, NONE, false, false);
+		Assert.assertEquals("order&id=1&tab=items", rule.getCacheKey(new URLToken("order&id=1&utm_source=mail&tab=items&ts=123")));
+		Assert.assertEquals("order", rule.getCacheKey(new URLToken("order&ts=123")));
+	}
+	
+	@Test
+	public void testIgnoredParameters() {
+		CacheKeyRule rule = new CacheKeyRule(NONE, new String[]{"utm_source", "ts", "next"}, false, false);
+		String expected = "order&id=1";
+		Assert.assertEquals(expected, rule.getCacheKey(new URLToken("order&id=1")));
+		Assert.assertEquals(expected, rule.getCacheKey(new URLToken("order&utm_source=mail&id=1")));
+		Assert.assertEquals(expected, rule.getCacheKey(new URLToken("order&id=1&ts=123&next='home&x=1'")));
+	}
+	
+	@Test
+	public void testIgnoreOrder() {
+		CacheKeyRule rule = new CacheKeyRule(NONE, NONE, true, false);
+		String expected = "search&a=1&b='x y'&c";
+		Assert.assertEquals(expected, rule.getCacheKey(new URLToken("search&c&b='x y'&a=1")));
+		Assert.assertEquals(expected, rule.getCacheKey(new URLToken("search&a=1&b='x y'&c")));
+		
+		//the key is a valid token itself
+		Assert.assertEquals(expected, new URLToken(expected).toString());
+	}
+	
+	@Test
+	public void testDropEmpty() {
+		CacheKeyRule rule = new CacheKeyRule(NONE, NONE, false, true);
+		Assert.assertEquals("search&q=x", rule.getCacheKey(new URLToken("search&page=&q=x&filter")));
+	}
+	
+	@Test
+	public void testAllRules() {
+		CacheKeyRule rule = new CacheKeyRule(new String[]{"q", "page", "ts"}, new String[]{"ts"}, true, true);
+		Assert.assertEquals("search&page=2&q=x", rule.getCacheKey(new URLToken("search&ts=1&q=x&sort&page=2")));
+		Assert.assertEquals("search&page=2&q=x", rule.getCacheKey(new URLToken("search&page=2&q=x&ts=2")));
+	}
+
+}
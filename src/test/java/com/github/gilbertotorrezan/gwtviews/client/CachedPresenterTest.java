@@ -0,0 +1,296 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gwt.event.logical.shared.AttachEvent;
+import com.google.gwt.junit.GWTMockUtilities;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class CachedPresenterTest {
+	
+	private static class TestView extends Widget implements DisposableView {
+		
+		private final String token;
+		private boolean disposed;
+		private boolean attached;
+		
+		public TestView(String token) {
+			this.token = token;
+		}
+		
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+	}
+	
+	private static class TestPresenter extends CachedPresenter<TestView> {
+		
+		private final List<String> evictedTokens = new ArrayList<>();
+		private int created;
+		private long now;
+		
+		public TestPresenter(int maxEntries, long expireAfterAccessMillis) {
+			super(maxEntries, expireAfterAccessMillis, null);
+		}
+		
+		@Override
+		public TestView createNewView(URLToken url) {
+			created++;
+			return new TestView(url.toString());
+		}
+		
+		@Override
+		protected void onViewEvicted(String token, TestView view) {
+			evictedTokens.add(token);
+			super.onViewEvicted(token, view);
+		}
+		
+		@Override
+		protected long currentTimeMillis() {
+			return now;
+		}
+		
+		@Override
+		protected boolean isViewInUse(TestView view) {
+			return view.attached;
+		}
+	}
+	
+	@BeforeClass
+	public static void disarmGWT() {
+		//the tests only need plain Widget instances, without DOM elements
+		GWTMockUtilities.disarm();
+	}
+	
+	@AfterClass
+	public static void restoreGWT() {
+		GWTMockUtilities.restore();
+	}
+	
+	@Test
+	public void testUnboundedCache() {
+		TestPresenter presenter = new TestPresenter(0, 0);
+		for (int i = 0; i < 100; i++) {
+			presenter.getView(new URLToken("order&id=" + i));
+		}
+		Assert.assertEquals(100, presenter.getCacheSize());
+		Assert.assertTrue(presenter.evictedTokens.isEmpty());
+		
+		TestView view = presenter.getView(new URLToken("order&id=0"));
+		Assert.assertEquals("order&id=0", view.token);
+		Assert.assertEquals(100, presenter.created);
+	}
+	
+	@Test
+	public void testMaxEntriesEvictsLeastRecentlyUsed() {
+		TestPresenter presenter = new TestPresenter(2, 0);
+		TestView first = presenter.getView(new URLToken("order&id=1"));
+		TestView second = presenter.getView(new URLToken("order&id=2"));
+		
+		//touches the first view, so the second becomes the least recently used
+		Assert.assertSame(first, presenter.getView(new URLToken("order&id=1")));
+		presenter.getView(new URLToken("order&id=3"));
+		
+		Assert.assertEquals(2, presenter.getCacheSize());
+		Assert.assertEquals(1, presenter.evictedTokens.size());
+		Assert.assertEquals("order&id=2", presenter.evictedTokens.get(0));
+		Assert.assertTrue(second.disposed);
+		Assert.assertFalse(first.disposed);
+		
+		Assert.assertSame(first, presenter.getView(new URLToken("order&id=1")));
+		Assert.assertNotSame(second, presenter.getView(new URLToken("order&id=2")));
+		Assert.assertEquals(4, presenter.created);
+	}
+	
+	@Test
+	public void testExpireAfterAccess() {
+		TestPresenter presenter = new TestPresenter(0, 1000);
+		presenter.now = 0;
+		TestView first = presenter.getView(new URLToken("order&id=1"));
+		presenter.now = 600;
+		TestView second = presenter.getView(new URLToken("order&id=2"));
+		presenter.now = 900;
+		Assert.assertSame(first, presenter.getView(new URLToken("order&id=1")));
+		
+		//the second view was accessed at 600, the first at 900
+		presenter.now = 1700;
+		presenter.getView(new URLToken("order&id=3"));
+		Assert.assertTrue(second.disposed);
+		Assert.assertFalse(first.disposed);
+		Assert.assertEquals(2, presenter.getCacheSize());
+		
+		presenter.now = 1900;
+		Assert.assertNotSame(first, presenter.getView(new URLToken("order&id=1")));
+		Assert.assertTrue(first.disposed);
+		Assert.assertEquals(2, presenter.getCacheSize());
+		Assert.assertEquals(4, presenter.created);
+	}
+	
+	@Test
+	public void testRequestedViewIsNeverEvicted() {
+		TestPresenter presenter = new TestPresenter(1, 10);
+		presenter.now = 0;
+		TestView view = presenter.getView(new URLToken("order&id=1"));
+		presenter.now = 5;
+		Assert.assertSame(view, presenter.getView(new URLToken("order&id=1")));
+		presenter.now = 14;
+		Assert.assertSame(view, presenter.getView(new URLToken("order&id=1")));
+		Assert.assertFalse(view.disposed);
+		Assert.assertEquals(1, presenter.created);
+	}
+	
+	@Test
+	public void testMaxEntriesKeepsAttachedViews() {
+		TestPresenter presenter = new TestPresenter(1, 0);
+		TestView first = presenter.getView(new URLToken("order&id=1"));
+		//like a View kept hidden by a ViewStackPanel
+		first.attached = true;
+		TestView second = presenter.getView(new URLToken("order&id=2"));
+		second.attached = true;
+		
+		presenter.getView(new URLToken("order&id=3"));
+		Assert.assertFalse(first.disposed);
+		Assert.assertFalse(second.disposed);
+		Assert.assertEquals(3, presenter.getCacheSize());
+		Assert.assertSame(first, presenter.getView(new URLToken("order&id=1")));
+		
+		//evicted once it leaves the page
+		second.attached = false;
+		presenter.getView(new URLToken("order&id=1"));
+		Assert.assertTrue(second.disposed);
+		Assert.assertFalse(first.disposed);
+		Assert.assertEquals(1, presenter.getCacheSize());
+		Assert.assertEquals(3, presenter.created);
+	}
+	
+	@Test
+	public void testExpirationKeepsAttachedViews() {
+		TestPresenter presenter = new TestPresenter(0, 1000);
+		presenter.now = 0;
+		TestView first = presenter.getView(new URLToken("order&id=1"));
+		first.attached = true;
+		TestView second = presenter.getView(new URLToken("order&id=2"));
+		
+		presenter.now = 1500;
+		presenter.getView(new URLToken("order&id=3"));
+		Assert.assertFalse(first.disposed);
+		Assert.assertTrue(second.disposed);
+		Assert.assertSame(first, presenter.getView(new URLToken("order&id=1")));
+		
+		first.attached = false;
+		presenter.now = 3000;
+		presenter.getView(new URLToken("order&id=3"));
+		Assert.assertTrue(first.disposed);
+	}
+	
+	@Test
+	public void testIsCachedDoesNotTouchViews() {
+		TestPresenter presenter = new TestPresenter(2, 0);
+		presenter.getView(new URLToken("order&id=1"));
+		presenter.getView(new URLToken("order&id=2"));
+		Assert.assertTrue(presenter.isCached(new URLToken("order&id=1")));
+		Assert.assertFalse(presenter.isCached(new URLToken("order&id=3")));
+		
+		//the first view is still the least recently used
+		presenter.getView(new URLToken("order&id=3"));
+		Assert.assertFalse(presenter.isCached(new URLToken("order&id=1")));
+		Assert.assertEquals("order&id=1", presenter.evictedTokens.get(0));
+		Assert.assertEquals(3, presenter.created);
+	}
+	
+	@Test
+	public void testClearViewCache() {
+		TestPresenter presenter = new TestPresenter(10, 0);
+		TestView first = presenter.getView(new URLToken("order&id=1"));
+		TestView second = presenter.getView(new URLToken("order&id=2"));
+		presenter.clearViewCache();
+		
+		Assert.assertEquals(0, presenter.getCacheSize());
+		Assert.assertTrue(first.disposed);
+		Assert.assertTrue(second.disposed);
+		Assert.assertEquals(2, presenter.evictedTokens.size());
+	}
+	
+	@Test
+	public void testClearViewCacheWaitsForTheDetach() {
+		TestPresenter presenter = new TestPresenter(10, 0);
+		TestView shown = presenter.getView(new URLToken("order&id=1"));
+		shown.attached = true;
+		TestView hidden = presenter.getView(new URLToken("order&id=2"));
+		presenter.clearViewCache();
+		
+		Assert.assertEquals(0, presenter.getCacheSize());
+		Assert.assertTrue(hidden.disposed);
+		Assert.assertFalse(shown.disposed);
+		Assert.assertEquals(1, presenter.evictedTokens.size());
+		
+		shown.attached = false;
+		AttachEvent.fire(shown, false);
+		Assert.assertTrue(shown.disposed);
+		Assert.assertEquals(2, presenter.evictedTokens.size());
+		
+		//notified only once
+		AttachEvent.fire(shown, false);
+		Assert.assertEquals(2, presenter.evictedTokens.size());
+	}
+	
+	@Test
+	public void testCacheKey() {
+		final CacheKeyRule rule = new CacheKeyRule(new String[0], new String[]{"utm_source"}, true, false);
+		TestPresenter presenter = new TestPresenter(0, 0) {
+			@Override
+			protected String getCacheKey(URLToken url) {
+				return rule.getCacheKey(url);
+			}
+		};
+		TestView view = presenter.getView(new URLToken("search&q=x&page=2"));
+		Assert.assertSame(view, presenter.getView(new URLToken("search&page=2&q=x&utm_source=mail")));
+		Assert.assertEquals("search&q=x&page=2", view.token);
+		Assert.assertEquals(1, presenter.getCacheSize());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeMaxEntries() {
+		new TestPresenter(-1, 0);
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class CachingURLTokenFactoryTest {
+
+	@Test
+	public void testHitsAndMisses(){
+		CachingURLTokenFactory factory = new CachingURLTokenFactory(2);
+		
+		URLToken first = factory.createToken("first&a=1");
+		URLToken second = factory.createToken("first&a=1");
+		
+		Assert.assertEquals(1, factory.getMissCount());
+		Assert.assertEquals(1, factory.getHitCount());
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(first, second);
+		Assert.assertEquals("1", second.getParameter("a"));
+	}
+	
+	@Test
+	public void testCopiesAreIndependent(){
+		CachingURLTokenFactory factory = new CachingURLTokenFactory();
+		
+		URLToken first = factory.createToken("id&a=1");
+		first.setParameter("a", "2");
+		first.setParameter("b", "3");
+		
+		URLToken second = factory.createToken("id&a=1");
+		Assert.assertEquals("id&a=1", second.toString());
+		Assert.assertEquals("id&a=2&b=3", first.toString());
+		
+		second.clearParameters();
+		Assert.assertEquals("id", second.toString());
+		Assert.assertEquals("id&a=1", factory.createToken("id&a=1").toString());
+	}
+	
+	@Test
+	public void testEviction(){
+		CachingURLTokenFactory factory = new CachingURLTokenFactory(2);
+		
+		factory.createToken("one");
+		factory.createToken("two");
+		factory.createToken("one");
+		factory.createToken("three");
+		Assert.assertEquals(2, factory.getSize());
+		
+		//"two" was the least recently used
+		factory.createToken("one");
+		factory.createToken("two");
+		Assert.assertEquals(2, factory.getHitCount());
+		Assert.assertEquals(4, factory.getMissCount());
+	}
+	
+	private static class CountingToken extends URLToken {
+		
+		private static int serializations;
+		
+		public CountingToken(String completeToken) {
+			super(completeToken);
+		}
+		
+		public CountingToken(URLToken source) {
+			super(source);
+		}
+		
+		@Override
+		public String toString() {
+			serializations++;
+			return super.toString();
+		}
+		
+		@Override
+		public URLToken clone() {
+			return new CountingToken(this);
+		}
+	}
+	
+	@Test
+	public void testMissesDoNotSerializeTheToken(){
+		CachingURLTokenFactory factory = new CachingURLTokenFactory(new URLTokenFactory() {
+			@Override
+			public URLToken createToken(String completeToken) {
+				return new CountingToken(completeToken);
+			}
+		}, 2);
+		CountingToken.serializations = 0;
+		
+		URLToken token = factory.createToken("id&a=1&b='x y'");
+		factory.createToken("id&a=1&b='x y'");
+		Assert.assertEquals(0, CountingToken.serializations);
+		Assert.assertEquals("id", token.getId());
+		Assert.assertEquals("x y", token.getParameter("b"));
+		Assert.assertEquals("x y", factory.createToken("id&a=1&b='x y'").getParameter("b"));
+	}
+	
+	@Test
+	public void testNull(){
+		CachingURLTokenFactory factory = new CachingURLTokenFactory();
+		
+		Assert.assertEquals("", factory.createToken(null).toString());
+		Assert.assertEquals(0, factory.getSize());
+	}
+	
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class CachingUserPresenceManagerTest {
+	
+	/**
+	 * Delegate that keeps the callbacks, so the tests decide when and how they are answered.
+	 */
+	private static class TestManager implements UserPresenceManager {
+		
+		private final List<AsyncCallback<Boolean>> calls = new ArrayList<>();
+		
+		@Override
+		public void isUserInAnyRole(URLToken url, String[] roles, AsyncCallback<Boolean> callback) {
+			calls.add(callback);
+		}
+		
+		public void answer(int call, Boolean allowed) {
+			calls.get(call).onSuccess(allowed);
+		}
+	}
+	
+	private static class TestCachingManager extends CachingUserPresenceManager {
+		
+		private long now;
+		
+		public TestCachingManager(UserPresenceManager delegate, boolean perTokenId) {
+			super(delegate, 1000, perTokenId);
+		}
+		
+		@Override
+		protected long currentTimeMillis() {
+			return now;
+		}
+	}
+	
+	private static class Result implements AsyncCallback<Boolean> {
+		
+		private Boolean allowed;
+		private Throwable error;
+		private int count;
+		
+		@Override
+		public void onSuccess(Boolean result) {
+			allowed = result;
+			count++;
+		}
+		
+		@Override
+		public void onFailure(Throwable caught) {
+			error = caught;
+			count++;
+		}
+	}
+	
+	@Test
+	public void testGrantedAccessIsKeptUntilExpired() {
+		TestManager delegate = new TestManager();
+		TestCachingManager manager = new TestCachingManager(delegate, false);
+		
+		Result first = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[]{"USER", "ADMIN"}, first);
+		delegate.answer(0, true);
+		Assert.assertEquals(Boolean.TRUE, first.allowed);
+		
+		//same roles in a different order, for another view
+		manager.now = 999;
+		Result second = new Result();
+		manager.isUserInAnyRole(new URLToken("customers"), new String[]{"ADMIN", "USER"}, second);
+		Assert.assertEquals(Boolean.TRUE, second.allowed);
+		Assert.assertEquals(1, delegate.calls.size());
+		
+		manager.now = 1000;
+		Result third = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[]{"USER", "ADMIN"}, third);
+		Assert.assertNull(third.allowed);
+		Assert.assertEquals(2, delegate.calls.size());
+	}
+	
+	@Test
+	public void testDeniedAccessIsNotKept() {
+		TestManager delegate = new TestManager();
+		TestCachingManager manager = new TestCachingManager(delegate, false);
+		
+		Result denied = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], denied);
+		delegate.answer(0, false);
+		Assert.assertEquals(Boolean.FALSE, denied.allowed);
+		
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], new Result());
+		Assert.assertEquals(2, delegate.calls.size());
+		Assert.assertEquals(0, manager.getSize());
+	}
+	
+	@Test
+	public void testFailureIsNotKept() {
+		TestManager delegate = new TestManager();
+		TestCachingManager manager = new TestCachingManager(delegate, false);
+		
+		Result failed = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], failed);
+		RuntimeException error = new RuntimeException();
+		delegate.calls.get(0).onFailure(error);
+		Assert.assertSame(error, failed.error);
+		
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], new Result());
+		Assert.assertEquals(2, delegate.calls.size());
+	}
+	
+	@Test
+	public void testConcurrentRequestsShareTheCall() {
+		TestManager delegate = new TestManager();
+		TestCachingManager manager = new TestCachingManager(delegate, false);
+		
+		Result first = new Result();
+		Result second = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[]{"USER"}, first);
+		manager.isUserInAnyRole(new URLToken("customers"), new String[]{"USER"}, second);
+		Assert.assertEquals(1, delegate.calls.size());
+		
+		delegate.answer(0, true);
+		Assert.assertEquals(Boolean.TRUE, first.allowed);
+		Assert.assertEquals(Boolean.TRUE, second.allowed);
+		Assert.assertEquals(1, first.count);
+		Assert.assertEquals(1, second.count);
+	}
+	
+	@Test
+	public void testPerTokenId() {
+		TestManager delegate = new TestManager();
+		TestCachingManager manager = new TestCachingManager(delegate, true);
+		
+		manager.isUserInAnyRole(new URLToken("orders&id=1"), new String[]{"USER"}, new Result());
+		delegate.answer(0, true);
+		
+		Result sameId = new Result();
+		manager.isUserInAnyRole(new URLToken("orders&id=2"), new String[]{"USER"}, sameId);
+		Assert.assertEquals(Boolean.TRUE, sameId.allowed);
+		
+		manager.isUserInAnyRole(new URLToken("customers"), new String[]{"USER"}, new Result());
+		Assert.assertEquals(2, delegate.calls.size());
+	}
+	
+	@Test
+	public void testInvalidateAuthorization() {
+		TestManager delegate = new TestManager();
+		TestCachingManager manager = new TestCachingManager(delegate, false);
+		
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], new Result());
+		delegate.answer(0, true);
+		Assert.assertEquals(1, manager.getSize());
+		
+		manager.invalidateAuthorization();
+		Assert.assertEquals(0, manager.getSize());
+		
+		//a request in flight during the invalidation is answered, but not kept
+		Result inFlight = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], inFlight);
+		manager.invalidateAuthorization();
+		Result afterInvalidation = new Result();
+		manager.isUserInAnyRole(new URLToken("orders"), new String[0], afterInvalidation);
+		Assert.assertEquals(3, delegate.calls.size());
+		
+		delegate.answer(1, true);
+		Assert.assertEquals(Boolean.TRUE, inFlight.allowed);
+		Assert.assertNull(afterInvalidation.allowed);
+		Assert.assertEquals(0, manager.getSize());
+		
+		delegate.answer(2, true);
+		Assert.assertEquals(Boolean.TRUE, afterInvalidation.allowed);
+		Assert.assertEquals(1, manager.getSize());
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class NavigationTimingTest {
+	
+	@Test
+	public void testPhases() {
+		NavigationTiming timing = new NavigationTiming();
+		timing.start(NavigationPhase.TOKEN_PARSE, 100);
+		timing.end(NavigationPhase.TOKEN_PARSE, 101);
+		timing.start(NavigationPhase.FRAGMENT_LOAD, 101);
+		timing.end(NavigationPhase.FRAGMENT_LOAD, 150);
+		timing.start(NavigationPhase.GET_VIEW, 150);
+		timing.end(NavigationPhase.GET_VIEW, 170);
+		timing.start(NavigationPhase.SHOW_VIEW, 170);
+		timing.end(NavigationPhase.SHOW_VIEW, 180);
+		
+		Assert.assertEquals(100, timing.getStartTime(), 0);
+		Assert.assertEquals(180, timing.getEndTime(), 0);
+		Assert.assertEquals(80, timing.getTotalTime(), 0);
+		Assert.assertEquals(49, timing.getDuration(NavigationPhase.FRAGMENT_LOAD), 0);
+		Assert.assertTrue(timing.hasPhase(NavigationPhase.GET_VIEW));
+	}
+	
+	@Test
+	public void testMissingPhases() {
+		NavigationTiming timing = new NavigationTiming();
+		//started but superseded phases don't count either
+		timing.start(NavigationPhase.AUTHORIZATION, 100);
+		
+		Assert.assertFalse(timing.hasPhase(NavigationPhase.INTERCEPTOR));
+		Assert.assertFalse(timing.hasPhase(NavigationPhase.AUTHORIZATION));
+		Assert.assertEquals(0, timing.getDuration(NavigationPhase.AUTHORIZATION), 0);
+		Assert.assertEquals(-1, timing.getEnd(NavigationPhase.INTERCEPTOR), 0);
+	}
+	
+	@Test
+	public void testView() {
+		NavigationTiming timing = new NavigationTiming();
+		timing.setToken("customers/42&tab=info");
+		timing.setView("customers/{id}", true);
+		timing.setViewCached(false);
+		
+		Assert.assertEquals("customers/42&tab=info", timing.getToken());
+		Assert.assertEquals("customers/{id}", timing.getViewId());
+		Assert.assertTrue(timing.isPresenterCached());
+		Assert.assertFalse(timing.isViewCached());
+		Assert.assertTrue(timing.toString().contains("viewId=customers/{id}"));
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class RouteTrieTest {
+	
+	@Test
+	public void testPathParameters() {
+		RouteTrie routes = new RouteTrie()
+				.add("customers/{id}", 0)
+				.add("customers/{id}/orders/{order}", 1);
+		
+		URLToken token = new URLToken("customers/42&tab=info");
+		Assert.assertEquals(0, routes.match(token));
+		Assert.assertEquals("42", token.getPathParameter("id"));
+		Assert.assertEquals("info", token.getParameter("tab"));
+		
+		token = new URLToken("customers/42/orders/7");
+		Assert.assertEquals(1, routes.match(token));
+		Assert.assertEquals("42", token.getPathParameter("id"));
+		Assert.assertEquals("7", token.getPathParameter("order"));
+		Assert.assertEquals("customers/42/orders/7", token.toString());
+	}
+	
+	@Test
+	public void testNoMatch() {
+		RouteTrie routes = new RouteTrie().add("customers/{id}/orders", 0);
+		
+		Assert.assertEquals(-1, routes.match(new URLToken("customers/42")));
+		Assert.assertEquals(-1, routes.match(new URLToken("customers//orders")));
+		Assert.assertEquals(-1, routes.match(new URLToken("customers/42/orders/7")));
+		Assert.assertEquals(-1, routes.match(new URLToken("orders")));
+		Assert.assertEquals(-1, routes.match(new URLToken("")));
+		
+		URLToken token = new URLToken("customers/42");
+		routes.match(token);
+		Assert.assertNull(token.getPathParameter("id"));
+	}
+	
+	@Test
+	public void testStaticSegmentsTakePrecedence() {
+		RouteTrie routes = new RouteTrie()
+				.add("customers/{id}/orders", 0)
+				.add("customers/new", 1)
+				.add("customers/{id}", 2);
+		
+		Assert.assertEquals(1, routes.match(new URLToken("customers/new")));
+		Assert.assertEquals(2, routes.match(new URLToken("customers/old")));
+		
+		//the route through the variable is still reachable after the static segment
+		URLToken token = new URLToken("customers/new/orders");
+		Assert.assertEquals(0, routes.match(token));
+		Assert.assertEquals("new", token.getPathParameter("id"));
+	}
+	
+	@Test
+	public void testVariablesByPosition() {
+		RouteTrie routes = new RouteTrie()
+				.add("{section}/{item}", 0)
+				.add("docs/{page}/edit", 1);
+		
+		URLToken token = new URLToken("docs/intro");
+		Assert.assertEquals(0, routes.match(token));
+		Assert.assertEquals("docs", token.getPathParameter("section"));
+		Assert.assertEquals("intro", token.getPathParameter("item"));
+		Assert.assertNull(token.getPathParameter("page"));
+		
+		token = new URLToken("docs/intro/edit");
+		Assert.assertEquals(1, routes.match(token));
+		Assert.assertEquals("intro", token.getPathParameter("page"));
+		Assert.assertNull(token.getPathParameter("section"));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testAmbiguousPatterns() {
+		new RouteTrie().add("customers/{id}", 0).add("customers/{name}", 1);
+	}
+	
+	@Test
+	public void testPathParametersAreResetWithTheId() {
+		RouteTrie routes = new RouteTrie().add("customers/{id}", 0);
+		URLToken token = new URLToken("customers/42");
+		routes.match(token);
+		
+		URLToken copy = new URLToken(token);
+		Assert.assertEquals("42", copy.getPathParameter("id"));
+		
+		token.setId("orders");
+		Assert.assertNull(token.getPathParameter("id"));
+		Assert.assertEquals("42", copy.getPathParameter("id"));
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class TokenParametersTest {
+
+	@Test
+	public void testOrder(){
+		TokenParameters parameters = new TokenParameters();
+		parameters.put("a", "1");
+		parameters.put("b", "2");
+		parameters.put("c", "3");
+		
+		Assert.assertEquals("1", parameters.put("a", "4"));
+		Assert.assertEquals("2", parameters.remove("b"));
+		Assert.assertEquals(null, parameters.remove("b"));
+		parameters.put("b", "5");
+		
+		Assert.assertEquals(3, parameters.size());
+		Assert.assertEquals("a", parameters.keyAt(0));
+		Assert.assertEquals("4", parameters.valueAt(0));
+		Assert.assertEquals("c", parameters.keyAt(1));
+		Assert.assertEquals("b", parameters.keyAt(2));
+	}
+	
+	@Test
+	public void testSameBehaviorAsLinkedHashMap(){
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			TokenParameters parameters = new TokenParameters();
+			Map<String, String> expected = new LinkedHashMap<>();
+			
+			//enough keys to cross the hash threshold back and forth
+			int keyCount = TokenParameters.HASH_THRESHOLD * 3;
+			for (int operation = 0; operation < 300; operation++) {
+				String key = "key" + random.nextInt(keyCount);
+				String value = "value" + operation;
+				switch (random.nextInt(4)) {
+				case 0:
+					Assert.assertEquals(expected.remove(key), parameters.remove(key));
+					break;
+				case 1:
+					Assert.assertEquals(expected.get(key), parameters.get(key));
+					Assert.assertEquals(expected.containsKey(key), parameters.containsKey(key));
+					break;
+				default:
+					Assert.assertEquals(expected.put(key, value), parameters.put(key, value));
+					break;
+				}
+			}
+			
+			assertSameContent(expected, parameters);
+			assertSameContent(expected, new TokenParameters(parameters));
+		}
+	}
+	
+	private void assertSameContent(Map<String, String> expected, TokenParameters parameters){
+		List<String> expectedEntries = new ArrayList<>();
+		for (Entry<String, String> entry : expected.entrySet()) {
+			expectedEntries.add(entry.getKey() + "=" + entry.getValue());
+		}
+		List<String> entries = new ArrayList<>();
+		for (int i = 0; i < parameters.size(); i++) {
+			entries.add(parameters.keyAt(i) + "=" + parameters.valueAt(i));
+			Assert.assertEquals(i, parameters.indexOf(parameters.keyAt(i)));
+		}
+		Assert.assertEquals(expectedEntries, entries);
+	}
+	
+}
@@ -24,6 +24,11 @@
  */
 package com.github.gilbertotorrezan.gwtviews.client;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -113,5 +118,251 @@ public class URLTokenTest {
 		Assert.assertEquals(false, token.getParameterAsBoolean("param4"));
 		Assert.assertEquals(false, token.getParameterAsBoolean("param5"));
 	}
+
+	@Test
+	public void testMalformedURLs(){
+		//values with quotes in the middle, unterminated quotes, text after the closing quote and empty keys
+		assertParsedAs("id&a=b'c&d'e&f", "id&a='bc&d'&f");
+		assertParsedAs("id&a='unterminated&b=c", "id&a='unterminated&b=c'");
+		assertParsedAs("id&a='value'ignored&b", "id&a=value&b");
+		assertParsedAs("id&=value", "id&=value");
+		assertParsedAs("id&=&b", "id&&b");
+		assertParsedAs("id&=", "id");
+		assertParsedAs("id&&&a&", "id&a");
+		assertParsedAs("id&a=1=2", "id&a='1=2'");
+		assertParsedAs("&a=1", "&a=1");
+		assertParsedAs("id=1&a", "id=1&a");
+	}
+	
+	@Test
+	public void testDuplicatedParameters(){
+		URLToken token = new URLToken("id&a=1&b=2&a=3&b");
+		
+		Assert.assertEquals("3", token.getParameter("a"));
+		Assert.assertEquals("", token.getParameter("b"));
+		Assert.assertEquals("id&a=3&b", token.toString());
+	}
+	
+	@Test
+	public void testQuotedValues(){
+		URLToken token = new URLToken("id");
+		token.setParameter("amp", "a&b");
+		token.setParameter("eq", "a=b");
+		token.setParameter("space", "a b");
+		token.setParameter("colon", "a:b");
+		token.setParameter("hash", "a#b");
+		token.setParameter("question", "a?b");
+		token.setParameter("plain", "a-b_c.d/e");
+		token.setParameter("empty", "");
+		
+		Assert.assertEquals("id&amp='a&b'&eq='a=b'&space='a b'&colon='a:b'&hash='a#b'&question='a?b'&plain=a-b_c.d/e&empty", token.toString());
+		Assert.assertEquals(token.toString(), new URLToken(token.toString()).toString());
+	}
+	
+	@Test
+	public void testSetTokenReplacesState(){
+		URLToken token = new URLToken("first&a=1&b=2");
+		token.setToken("second&c=3");
+		
+		Assert.assertEquals("second", token.getId());
+		Assert.assertEquals(null, token.getParameter("a"));
+		Assert.assertEquals("second&c=3", token.toString());
+		
+		token.setToken(null);
+		Assert.assertEquals("", token.getId());
+		Assert.assertEquals("", token.toString());
+	}
+	
+	@Test
+	public void testChangesAfterToString(){
+		URLToken token = new URLToken("id&a=1");
+		URLToken other = new URLToken("id&a=1");
+		
+		Assert.assertEquals("id&a=1", token.toString());
+		Assert.assertEquals(token, other);
+		Assert.assertEquals(token.hashCode(), other.hashCode());
+		
+		token.setParameter("b", "2");
+		Assert.assertEquals("id&a=1&b=2", token.toString());
+		Assert.assertNotEquals(token, other);
+		
+		token.removeParameter("b");
+		Assert.assertEquals(token, other);
+		Assert.assertEquals(token.hashCode(), other.hashCode());
+		
+		token.setId("other");
+		Assert.assertEquals("other&a=1", token.toString());
+		
+		token.clearParameters();
+		Assert.assertEquals("other", token.toString());
+		
+		token.setToken("id&a=1");
+		Assert.assertEquals(token, other);
+		Assert.assertEquals(token, "id&a=1");
+		
+		URLToken clone = token.clone();
+		clone.setParameter("a", "2");
+		Assert.assertEquals("id&a=1", token.toString());
+		Assert.assertEquals("id&a=2", clone.toString());
+		
+		token.removeParameter("a");
+		Assert.assertEquals("id", token.toString());
+		Assert.assertEquals("id&a=2", clone.toString());
+	}
+	
+	@Test
+	public void testParametersParsedOnDemand(){
+		URLToken token = new URLToken("id&a=1&b='x&y'");
+		Assert.assertEquals("id", token.getId());
+		
+		URLToken copy = new URLToken(token);
+		token.setId("other");
+		Assert.assertEquals("other&a=1&b='x&y'", token.toString());
+		Assert.assertEquals("x&y", copy.getParameter("b"));
+		Assert.assertEquals("id&a=1&b='x&y'", copy.toString());
+		
+		token.setToken("id&a=1");
+		token.setParameter("c", "3");
+		Assert.assertEquals("id&a=1&c=3", token.toString());
+		
+		token.setToken("id&a=1");
+		token.clearParameters();
+		Assert.assertFalse(token.containsParameter("a"));
+		Assert.assertEquals("id", token.toString());
+	}
+	
+	@Test
+	public void testInvalidNumbers(){
+		URLToken token = new URLToken("withNumbers&max=2147483647&min=-2147483648&over=2147483648&plus=+7&sign=-&hex=0x10&space=' 1'");
+		
+		Assert.assertEquals(Integer.MAX_VALUE, token.getParameterAsInt("max", 0));
+		Assert.assertEquals(Integer.MIN_VALUE, token.getParameterAsInt("min", 0));
+		Assert.assertEquals(-1, token.getParameterAsInt("over", -1));
+		Assert.assertEquals(2147483648L, token.getParameterAsLong("over", -1));
+		Assert.assertEquals(7, token.getParameterAsInt("plus", 0));
+		Assert.assertEquals(-1, token.getParameterAsInt("sign", -1));
+		Assert.assertEquals(-1, token.getParameterAsInt("hex", -1));
+		Assert.assertEquals(-1, token.getParameterAsInt("space", -1));
+		Assert.assertEquals(1.0, token.getParameterAsDouble("space", -1), 0);
+		Assert.assertEquals(-1, token.getParameterAsLong("sign", -1));
+		Assert.assertEquals(-1, token.getParameterAsLong("missing", -1));
+		Assert.assertEquals(Long.MAX_VALUE, new URLToken("id&l=9223372036854775807").getParameterAsLong("l", 0));
+		Assert.assertEquals(-1, new URLToken("id&l=9223372036854775808").getParameterAsLong("l", -1));
+	}
+	
+	@Test
+	public void testDoubles(){
+		String[] valid = { "1", "-1.5", "+.5", "5.", "1e10", "1.5E-3", "2d", "2.5f", "NaN", "-Infinity" };
+		for (String value : valid) {
+			URLToken token = new URLToken("id").withParameter("d", value);
+			Assert.assertEquals(value, Double.parseDouble(value), token.getParameterAsDouble("d", -42), 0);
+		}
+		String[] invalid = { ".", "-", "1e", "1.2.3", "e5", "1x", "NaNa", "0x1p3", "Infinityd" };
+		for (String value : invalid) {
+			URLToken token = new URLToken("id").withParameter("d", value);
+			Assert.assertEquals(value, -42, token.getParameterAsDouble("d", -42), 0);
+		}
+	}
+	
+	@Test
+	public void testTypedParameters(){
+		URLToken token = new URLToken("typed&policy=ALWAYS&wrong=always&date=1420070400000&list=a,b,,c&single=a&empty");
+		
+		Assert.assertEquals(CachePolicy.ALWAYS, token.getParameterAsEnum("policy", CachePolicy.class, CachePolicy.NEVER));
+		Assert.assertEquals(CachePolicy.NEVER, token.getParameterAsEnum("wrong", CachePolicy.class, CachePolicy.NEVER));
+		Assert.assertEquals(null, token.getParameterAsEnum("missing", CachePolicy.class, null));
+		Assert.assertEquals(new Date(1420070400000L), token.getParameterAsDate("date", null));
+		Assert.assertEquals(null, token.getParameterAsDate("policy", null));
+		Assert.assertEquals(Arrays.asList("a", "b", "", "c"), token.getParameterAsList("list"));
+		Assert.assertEquals(Arrays.asList("a"), token.getParameterAsList("single"));
+		Assert.assertEquals(Collections.emptyList(), token.getParameterAsList("empty"));
+		Assert.assertEquals(Collections.emptyList(), token.getParameterAsList("missing"));
+	}
+	
+	@Test
+	public void testListRoundTrip(){
+		List<String> items = Arrays.asList("a,b", "c\\d", "", "e\\,");
+		String serialized = URLToken.appendListParameter(new StringBuilder("id"), "list", items).toString();
+		Assert.assertEquals("id&list=a\\,b,c\\\\d,,e\\\\\\,", serialized);
+		Assert.assertEquals(items, new URLToken(serialized).getParameterAsList("list"));
+		Assert.assertEquals(items, new URLToken(new URLToken(serialized).toString()).getParameterAsList("list"));
+		
+		serialized = URLToken.appendListParameter(new StringBuilder("id"), "list", Arrays.asList("x y", "z")).toString();
+		Assert.assertEquals(Arrays.asList("x y", "z"), new URLToken(serialized).getParameterAsList("list"));
+	}
+	
+	@Test
+	public void testListWithSingleEmptyItemRoundTrip(){
+		List<String> items = Arrays.asList("");
+		String serialized = URLToken.appendListParameter(new StringBuilder("id"), "list", items).toString();
+		Assert.assertEquals("id&list=\\", serialized);
+		Assert.assertEquals(items, new URLToken(serialized).getParameterAsList("list"));
+		Assert.assertEquals(items, new URLToken(new URLToken(serialized).toString()).getParameterAsList("list"));
+		
+		serialized = URLToken.appendListParameter(new StringBuilder("id"), "list", Collections.<String>emptyList()).toString();
+		Assert.assertEquals("id&list", serialized);
+		Assert.assertEquals(Collections.emptyList(), new URLToken(serialized).getParameterAsList("list"));
+		
+		//a trailing backslash escapes nothing
+		Assert.assertEquals(Arrays.asList("a", ""), new URLToken("id&list=a,\\").getParameterAsList("list"));
+	}
+	
+	@Test
+	public void testFlags(){
+		URLToken token = new URLToken("id&bare&empty=&yes=true&no=false&other=x");
+		
+		Assert.assertTrue(token.getParameterAsFlag("bare", false));
+		Assert.assertTrue(token.getParameterAsFlag("empty", false));
+		Assert.assertTrue(token.getParameterAsFlag("yes", false));
+		Assert.assertFalse(token.getParameterAsFlag("no", true));
+		Assert.assertFalse(token.getParameterAsFlag("other", true));
+		Assert.assertTrue(token.getParameterAsFlag("missing", true));
+		Assert.assertFalse(token.getParameterAsFlag("missing", false));
+		
+		//a flag set to its default value is omitted, and a flag set to the other value is written with it
+		StringBuilder builder = URLToken.appendParameter(new StringBuilder("id"), "flag", String.valueOf(false));
+		Assert.assertFalse(new URLToken(builder.toString()).getParameterAsFlag("flag", true));
+	}
+	
+	@Test
+	public void testConvertedValuesFollowChanges(){
+		URLToken token = new URLToken("id&a=1&b=x,y");
+		
+		Assert.assertEquals(1, token.getParameterAsInt("a", 0));
+		Assert.assertEquals(1L, token.getParameterAsLong("a", 0));
+		Assert.assertEquals(1, token.getParameterAsInt("a", 0));
+		Assert.assertEquals(Arrays.asList("x", "y"), token.getParameterAsList("b"));
+		
+		URLToken copy = token.clone();
+		token.setParameter("a", "2");
+		token.setParameter("b", "z");
+		Assert.assertEquals(2, token.getParameterAsInt("a", 0));
+		Assert.assertEquals(2.0, token.getParameterAsDouble("a", 0), 0);
+		Assert.assertEquals(Arrays.asList("z"), token.getParameterAsList("b"));
+		Assert.assertEquals(1, copy.getParameterAsInt("a", 0));
+		Assert.assertEquals(Arrays.asList("x", "y"), copy.getParameterAsList("b"));
+		
+		token.removeParameter("a");
+		Assert.assertEquals(-1, token.getParameterAsInt("a", -1));
+		
+		token.setParameter("a", "notANumber");
+		Assert.assertEquals(-1, token.getParameterAsInt("a", -1));
+	}
+	
+	@Test
+	public void testParameterNames() {
+		Assert.assertTrue(new URLToken("orders").getParameterNames().isEmpty());
+		
+		URLToken token = new URLToken("orders&b=1&a&c='x&y'");
+		Assert.assertEquals(Arrays.asList("b", "a", "c"), token.getParameterNames());
+		
+		token.removeParameter("a");
+		token.setParameter("d", "2");
+		Assert.assertEquals(Arrays.asList("b", "c", "d"), token.getParameterNames());
+	}
+	
+	private void assertParsedAs(String completeToken, String expected){
+		Assert.assertEquals(expected, new URLToken(completeToken).toString());
+	}
 	
 }
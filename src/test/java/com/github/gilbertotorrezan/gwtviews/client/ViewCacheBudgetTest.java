@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gwt.junit.GWTMockUtilities;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class ViewCacheBudgetTest {
+	
+	private static class TestView extends Widget implements DisposableView {
+		
+		private boolean disposed;
+		private boolean attached;
+		
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+	}
+	
+	private static class TestPresenter extends CachedPresenter<TestView> {
+		
+		public TestPresenter(int maxEntries, ViewCacheBudget budget) {
+			super(maxEntries, 0, budget);
+		}
+		
+		@Override
+		public TestView createNewView(URLToken url) {
+			return new TestView();
+		}
+		
+		@Override
+		protected boolean isViewInUse(TestView view) {
+			return view.attached;
+		}
+	}
+	
+	@BeforeClass
+	public static void disarmGWT() {
+		//the tests only need plain Widget instances, without DOM elements
+		GWTMockUtilities.disarm();
+	}
+	
+	@AfterClass
+	public static void restoreGWT() {
+		GWTMockUtilities.restore();
+	}
+	
+	@Test
+	public void testEvictsGloballyLeastRecentlyUsed() {
+		ViewCacheBudget budget = new ViewCacheBudget(3);
+		TestPresenter orders = new TestPresenter(0, budget);
+		TestPresenter customers = new TestPresenter(0, budget);
+		
+		TestView order1 = orders.getView(new URLToken("order&id=1"));
+		TestView customer1 = customers.getView(new URLToken("customer&id=1"));
+		TestView order2 = orders.getView(new URLToken("order&id=2"));
+		Assert.assertEquals(3, budget.getSize());
+		
+		//touches the first order, so the first customer becomes the least recently used
+		Assert.assertSame(order1, orders.getView(new URLToken("order&id=1")));
+		TestView customer2 = customers.getView(new URLToken("customer&id=2"));
+		
+		Assert.assertEquals(3, budget.getSize());
+		Assert.assertTrue(customer1.disposed);
+		Assert.assertFalse(order1.disposed);
+		Assert.assertFalse(order2.disposed);
+		Assert.assertFalse(customer2.disposed);
+		Assert.assertEquals(2, orders.getCacheSize());
+		Assert.assertEquals(1, customers.getCacheSize());
+		Assert.assertNotSame(customer1, customers.getView(new URLToken("customer&id=1")));
+	}
+	
+	@Test
+	public void testLocalEvictionsLeaveTheBudget() {
+		ViewCacheBudget budget = new ViewCacheBudget(10);
+		TestPresenter orders = new TestPresenter(2, budget);
+		for (int i = 0; i < 5; i++) {
+			orders.getView(new URLToken("order&id=" + i));
+		}
+		Assert.assertEquals(2, orders.getCacheSize());
+		Assert.assertEquals(2, budget.getSize());
+		
+		orders.clearViewCache();
+		Assert.assertEquals(0, budget.getSize());
+	}
+	
+	@Test
+	public void testShrinkingTheBudget() {
+		ViewCacheBudget budget = new ViewCacheBudget(0);
+		TestPresenter orders = new TestPresenter(0, budget);
+		TestView last = null;
+		for (int i = 0; i < 50; i++) {
+			last = orders.getView(new URLToken("order&id=" + i));
+		}
+		Assert.assertEquals(50, budget.getSize());
+		
+		budget.setMaxViews(1);
+		Assert.assertEquals(1, budget.getSize());
+		Assert.assertEquals(1, orders.getCacheSize());
+		Assert.assertFalse(last.disposed);
+		Assert.assertSame(last, orders.getView(new URLToken("order&id=49")));
+	}
+	
+	@Test
+	public void testKeepsAttachedViews() {
+		ViewCacheBudget budget = new ViewCacheBudget(0);
+		TestPresenter orders = new TestPresenter(0, budget);
+		TestView order1 = orders.getView(new URLToken("order&id=1"));
+		TestView order2 = orders.getView(new URLToken("order&id=2"));
+		TestView order3 = orders.getView(new URLToken("order&id=3"));
+		order1.attached = true;
+		
+		budget.setMaxViews(1);
+		Assert.assertFalse(order1.disposed);
+		Assert.assertTrue(order2.disposed);
+		Assert.assertFalse(order3.disposed);
+		Assert.assertEquals(2, budget.getSize());
+		Assert.assertSame(order1, orders.getView(new URLToken("order&id=1")));
+		
+		//once detached, the View can be evicted again
+		order1.attached = false;
+		orders.getView(new URLToken("order&id=4"));
+		Assert.assertTrue(order1.disposed);
+		Assert.assertTrue(order3.disposed);
+		Assert.assertEquals(1, budget.getSize());
+	}
+	
+	@Test
+	public void testDefaultMaxViews() {
+		Assert.assertEquals(ViewCacheBudget.DEFAULT_MAX_VIEWS, ViewCacheBudget.getDefaultMaxViews());
+		Assert.assertSame(ViewCacheBudget.get(), ViewCacheBudget.get());
+		//the shared budget is opt-in
+		Assert.assertEquals(0, ViewCacheBudget.get().getMaxViews());
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client.analytics;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class PageViewQueueTest {
+	
+	@Test
+	public void testBatches() {
+		PageViewQueue queue = new PageViewQueue();
+		queue.setBatchSize(2);
+		for (int i = 0; i < 5; i++) {
+			Assert.assertTrue(queue.add("order&id=" + i));
+		}
+		
+		Assert.assertEquals(Arrays.asList("order&id=0", "order&id=1"), queue.nextBatch());
+		Assert.assertEquals(Arrays.asList("order&id=2", "order&id=3"), queue.nextBatch());
+		Assert.assertEquals(Arrays.asList("order&id=4"), queue.nextBatch());
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertTrue(queue.nextBatch().isEmpty());
+	}
+	
+	@Test
+	public void testBackToBackPagesAreIgnored() {
+		PageViewQueue queue = new PageViewQueue();
+		Assert.assertTrue(queue.add("home"));
+		Assert.assertFalse(queue.add("home"));
+		Assert.assertTrue(queue.add("orders"));
+		Assert.assertTrue(queue.add("home"));
+		Assert.assertEquals(Arrays.asList("home", "orders", "home"), queue.drain());
+		
+		//the last page is remembered after the queue is sent
+		Assert.assertFalse(queue.add("home"));
+	}
+	
+	@Test
+	public void testMaxSizeDropsOldestPages() {
+		PageViewQueue queue = new PageViewQueue();
+		queue.setMaxSize(2);
+		queue.add("a");
+		queue.add("b");
+		queue.add("c");
+		
+		Assert.assertEquals(2, queue.size());
+		Assert.assertEquals(1, queue.getDroppedCount());
+		Assert.assertEquals(Arrays.asList("b", "c"), queue.drain());
+	}
+	
+	@Test
+	public void testSampling() {
+		final double[] random = new double[1];
+		PageViewQueue queue = new PageViewQueue() {
+			@Override
+			double random() {
+				return random[0];
+			}
+		};
+		queue.setSampleRate(0.25);
+		
+		random[0] = 0.1;
+		Assert.assertTrue(queue.add("a"));
+		random[0] = 0.5;
+		Assert.assertFalse(queue.add("b"));
+		//not sampled pages still count as the previous page
+		Assert.assertFalse(queue.add("b"));
+		random[0] = 0.2;
+		Assert.assertTrue(queue.add("c"));
+		Assert.assertEquals(Arrays.asList("a", "c"), queue.drain());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSampleRate() {
+		new PageViewQueue().setSampleRate(1.5);
+	}
+
+}
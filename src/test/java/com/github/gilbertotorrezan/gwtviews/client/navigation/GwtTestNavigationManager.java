@@ -0,0 +1,348 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.client.navigation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.gilbertotorrezan.gwtviews.client.HasViews;
+import com.github.gilbertotorrezan.gwtviews.client.INavigationManager;
+import com.github.gilbertotorrezan.gwtviews.client.NavigationListener;
+import com.github.gilbertotorrezan.gwtviews.client.NavigationPhase;
+import com.github.gilbertotorrezan.gwtviews.client.NavigationTiming;
+import com.github.gilbertotorrezan.gwtviews.client.URLToken;
+import com.github.gilbertotorrezan.gwtviews.client.UserPresenceManager;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.History;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.gwt.user.client.ui.SimplePanel;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Tests the INavigationManager generated for the Views of this package. The code fragments are loaded by deferred commands
+ * in the development mode, so the completions of superseded navigations really arrive after the newer ones.
+ * <p>
+ * The GWT 2.7 compiler only runs on Java 8, so this test is not part of the default build: run it with 
+ * <code>mvn test -Pgwt-test -DgwtTestJvm=/path/to/java8/bin/java</code>.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+public class GwtTestNavigationManager extends GWTTestCase {
+	
+	private static final int TIMEOUT = 10000;
+	private static final int POLL_INTERVAL = 20;
+	
+	private INavigationManager manager;
+	private RootContainer root;
+	
+	@Override
+	public String getModuleName() {
+		return "com.github.gilbertotorrezan.gwtviews.gwtviews";
+	}
+	
+	@Override
+	protected void gwtSetUp() throws Exception {
+		HomeTestView.created = 0;
+		ItemTestView.created = 0;
+		SecureTestView.created = 0;
+		NotFoundTestView.created = 0;
+		ContainedTestView.created = 0;
+		ContainerTestView.created = 0;
+		
+		manager = GWT.create(INavigationManager.class);
+		root = new RootContainer();
+		manager.setRootContainer(root);
+	}
+	
+	public void testDispatchesThePathParameters() {
+		navigate("items/42&tab=info");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof ItemTestView;
+			}
+			@Override
+			void verify() {
+				assertEquals("42", root.token.getPathParameter("id"));
+				assertEquals("info", root.token.getParameter("tab"));
+				assertEquals(1, ItemTestView.created);
+			}
+		});
+	}
+	
+	public void testDispatchesTheDefaultView() {
+		navigate("");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof HomeTestView;
+			}
+		});
+	}
+	
+	public void testDispatchesTheNotFoundView() {
+		navigate("nowhere");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof NotFoundTestView;
+			}
+			@Override
+			void verify() {
+				assertEquals("404", root.token.getId());
+			}
+		});
+	}
+	
+	public void testShowsTheViewInsideItsContainer() {
+		navigate("contained");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof ContainerTestView;
+			}
+			@Override
+			void verify() {
+				assertTrue(((ContainerTestView) root.getWidget()).getWidget() instanceof ContainedTestView);
+				assertEquals(1, ContainerTestView.created);
+			}
+		});
+	}
+	
+	public void testNewerNavigationSupersedesTheFragment() {
+		navigate("items/1");
+		navigate("home");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof HomeTestView;
+			}
+			@Override
+			void verify() {
+				//the fragment of the items/1 was loaded first, but its View was never created
+				assertEquals(0, ItemTestView.created);
+			}
+		});
+	}
+	
+	public void testNewerNavigationSupersedesTheAuthorization() {
+		final PendingUserPresenceManager users = new PendingUserPresenceManager();
+		manager.setUserPresenceManager(users);
+		navigate("secure");
+		assertEquals(1, users.callbacks.size());
+		navigate("home");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof HomeTestView;
+			}
+			@Override
+			void verify() {
+				users.callbacks.get(0).onSuccess(true);
+			}
+		}, new Check() {
+			@Override
+			void verify() {
+				assertTrue(root.getWidget() instanceof HomeTestView);
+				assertEquals(0, SecureTestView.created);
+			}
+		});
+	}
+	
+	public void testSupersededDenialDoesNotRedirect() {
+		final String historyToken = History.getToken();
+		final PendingUserPresenceManager users = new PendingUserPresenceManager();
+		manager.setUserPresenceManager(users);
+		navigate("secure");
+		navigate("home");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof HomeTestView;
+			}
+			@Override
+			void verify() {
+				users.callbacks.get(0).onSuccess(false);
+			}
+		}, new Check() {
+			@Override
+			void verify() {
+				assertEquals(historyToken, History.getToken());
+			}
+		});
+	}
+	
+	public void testShowsTheAuthorizedView() {
+		final PendingUserPresenceManager users = new PendingUserPresenceManager();
+		manager.setUserPresenceManager(users);
+		navigate("secure");
+		assertEquals("secure", users.tokens.get(0).getId());
+		users.callbacks.get(0).onSuccess(true);
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return root.getWidget() instanceof SecureTestView;
+			}
+		});
+	}
+	
+	public void testNotifiesTheTimingOfTheShownNavigationOnly() {
+		final List<NavigationTiming> timings = new ArrayList<>();
+		manager.addNavigationListener(new NavigationListener() {
+			@Override
+			public void onNavigation(NavigationTiming timing) {
+				timings.add(timing);
+			}
+		});
+		navigate("items/1");
+		navigate("home");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return !timings.isEmpty();
+			}
+			@Override
+			void verify() {
+				NavigationTiming timing = timings.get(0);
+				assertEquals("home", timing.getToken());
+				assertEquals("home", timing.getViewId());
+				assertTrue(timing.hasPhase(NavigationPhase.FRAGMENT_LOAD));
+				assertTrue(timing.hasPhase(NavigationPhase.SHOW_VIEW));
+			}
+		}, new Check() {
+			@Override
+			void verify() {
+				assertEquals(1, timings.size());
+			}
+		});
+	}
+	
+	public void testPreloadCreatesTheViewWithoutShowingIt() {
+		manager.preload("items/7");
+		
+		waitFor(new Check() {
+			@Override
+			boolean isDone() {
+				return ItemTestView.created == 1;
+			}
+			@Override
+			void verify() {
+				assertNull(root.getWidget());
+			}
+		});
+	}
+	
+	private void navigate(String token) {
+		manager.onValueChange(new ValueChangeEvent<String>(token) {});
+	}
+	
+	/**
+	 * Polls the first check until it is done, then waits a little for the completions that could still be pending before 
+	 * running the second one.
+	 */
+	private void waitFor(final Check check, final Check... after) {
+		delayTestFinish(TIMEOUT);
+		Scheduler.get().scheduleFixedDelay(new RepeatingCommand() {
+			@Override
+			public boolean execute() {
+				if (!check.isDone()){
+					return true;
+				}
+				check.verify();
+				if (after.length == 0){
+					finishTest();
+					return false;
+				}
+				Scheduler.get().scheduleFixedDelay(new RepeatingCommand() {
+					@Override
+					public boolean execute() {
+						after[0].verify();
+						finishTest();
+						return false;
+					}
+				}, POLL_INTERVAL * 10);
+				return false;
+			}
+		}, POLL_INTERVAL);
+	}
+	
+	private static abstract class Check {
+		
+		boolean isDone() {
+			return true;
+		}
+		
+		void verify() {
+		}
+		
+	}
+	
+	/**
+	 * Root container that keeps the token of the last shown View.
+	 */
+	private static class RootContainer extends SimplePanel implements HasViews {
+		
+		private URLToken token;
+		
+		@Override
+		public void showView(URLToken url, Widget view) {
+			this.token = url;
+			setWidget(view);
+		}
+		
+	}
+	
+	/**
+	 * UserPresenceManager that only answers when the test calls the kept callbacks.
+	 */
+	private static class PendingUserPresenceManager implements UserPresenceManager {
+		
+		private final List<URLToken> tokens = new ArrayList<>();
+		private final List<AsyncCallback<Boolean>> callbacks = new ArrayList<>();
+		
+		@Override
+		public void isUserInAnyRole(URLToken url, String[] roles, AsyncCallback<Boolean> callback) {
+			tokens.add(url);
+			callbacks.add(callback);
+		}
+		
+	}
+
+}
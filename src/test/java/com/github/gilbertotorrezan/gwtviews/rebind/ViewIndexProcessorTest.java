@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class ViewIndexProcessorTest {
+	
+	private static class Source extends SimpleJavaFileObject {
+		
+		private final String code;
+		
+		public Source(String className, String code) {
+			super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.code = code;
+		}
+		
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return code;
+		}
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private JavaCompiler compiler;
+	private File output;
+	
+	@Before
+	public void setUp() throws IOException {
+		compiler = ToolProvider.getSystemJavaCompiler();
+		Assume.assumeNotNull(compiler);
+		output = folder.newFolder("classes");
+	}
+	
+	private void compile(JavaFileObject... sources) throws IOException {
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)){
+			//the previous classes are at the classpath, like in an incremental build
+			String classpath = System.getProperty("java.class.path") + File.pathSeparator + output.getPath();
+			List<String> options = Arrays.asList("-classpath", classpath, "-d", output.getPath(), 
+					"-processor", ViewIndexProcessor.class.getName());
+			boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, Arrays.asList(sources)).call();
+			for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+				Assert.assertNotEquals(diagnostic.toString(), Diagnostic.Kind.ERROR, diagnostic.getKind());
+			}
+			Assert.assertTrue(success);
+		}
+	}
+	
+	private List<String> readIndex() throws IOException {
+		List<String> names = new ArrayList<>();
+		for (String line : Files.readAllLines(new File(output, ViewIndexProcessor.RESOURCE).toPath(), StandardCharsets.UTF_8)) {
+			if (!line.startsWith("#")){
+				names.add(line);
+			}
+		}
+		return names;
+	}
+	
+	private static Source view(String name, String annotation) {
+		return new Source("com.example." + name, "package com.example;\n"
+				+ "import com.github.gilbertotorrezan.gwtviews.client.*;\n"
+				+ annotation + "\n"
+				+ "public class " + name + " {}\n");
+	}
+	
+	@Test
+	public void testIndexesTheAnnotatedTypes() throws IOException {
+		compile(view("HomeView", "@View(value = \"home\", defaultView = true)"),
+				view("MainContainer", "@ViewContainer"),
+				view("Helper", ""));
+		Assert.assertEquals(Arrays.asList("com.example.HomeView", "com.example.MainContainer"), readIndex());
+	}
+	
+	@Test
+	public void testKeepsThePreviousIndex() throws IOException {
+		compile(view("HomeView", "@View(value = \"home\", defaultView = true)"),
+				view("OrdersView", "@View(\"orders\")"));
+		
+		//only the changed sources are compiled: the annotation was removed from the orders, and a new View was added
+		compile(view("OrdersView", ""),
+				view("CustomersView", "@View(\"customers\")"));
+		Assert.assertEquals(Arrays.asList("com.example.CustomersView", "com.example.HomeView"), readIndex());
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2016 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtviews.rebind;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.typeinfo.JType;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.4.1
+ */
+@RunWith(JUnit4.class)
+public class ViewParametersSchemaTest {
+	
+	private static class RecordingLogger extends TreeLogger {
+		
+		private final List<String> errors = new ArrayList<>();
+		
+		@Override
+		public TreeLogger branch(Type type, String msg, Throwable caught, HelpInfo helpInfo) {
+			log(type, msg, caught, helpInfo);
+			return this;
+		}
+		
+		@Override
+		public boolean isLoggable(Type type) {
+			return true;
+		}
+		
+		@Override
+		public void log(Type type, String msg, Throwable caught, HelpInfo helpInfo) {
+			if (type == Type.ERROR){
+				errors.add(msg);
+			}
+		}
+	}
+	
+	/**
+	 * Creates a type that only knows its names, like the ones at the TypeOracle.
+	 */
+	private static JType type(final String qualifiedName, final String parameterizedName) {
+		return (JType) Proxy.newProxyInstance(JType.class.getClassLoader(), new Class<?>[]{JType.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "getQualifiedSourceName":
+					return qualifiedName;
+				case "getParameterizedQualifiedSourceName":
+					return parameterizedName;
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+	
+	@Test
+	public void testSameTypeComparesTheTypeArguments() {
+		JType strings = type("java.util.List", "java.util.List<java.lang.String>");
+		JType integers = type("java.util.List", "java.util.List<java.lang.Integer>");
+		Assert.assertTrue(ViewParametersSchema.isSameType(strings, type("java.util.List", "java.util.List<java.lang.String>")));
+		Assert.assertFalse(ViewParametersSchema.isSameType(strings, integers));
+		Assert.assertTrue(ViewParametersSchema.isSameType(type("java.lang.String", "java.lang.String"), type("java.lang.String", "java.lang.String")));
+	}
+	
+	@Test
+	public void testNullRestoresTheDefault() {
+		Assert.assertEquals("this.query = value == null ? \"x\" : value;", ViewParametersSchema.setterStatement("this.query", false, "\"x\""));
+		//without a default, null is the same as the missing parameter
+		Assert.assertEquals("this.query = value;", ViewParametersSchema.setterStatement("this.query", false, "null"));
+		Assert.assertEquals("this.page = value;", ViewParametersSchema.setterStatement("this.page", true, "1"));
+	}
+	
+	@Test
+	public void testDiffersFromDefault() {
+		Assert.assertEquals("this.policy != null", ViewParametersSchema.differsFromDefault("this.policy", "null"));
+		Assert.assertEquals("this.policy != null && !this.policy.equals(CachePolicy.NEVER)", 
+				ViewParametersSchema.differsFromDefault("this.policy", "CachePolicy.NEVER"));
+	}
+	
+	@Test
+	public void testListDefaults() {
+		Assert.assertEquals("java.util.Collections.<String>emptyList()", ViewParametersSchema.listExpression(""));
+		Assert.assertEquals("java.util.Collections.unmodifiableList(java.util.Arrays.asList(\"a\", \"b\"))", 
+				ViewParametersSchema.listExpression("a,b"));
+		//the commas are escaped like at the token
+		Assert.assertEquals("java.util.Collections.unmodifiableList(java.util.Arrays.asList(\"a,b\", \"c\"))", 
+				ViewParametersSchema.listExpression("a\\,b,c"));
+		Assert.assertEquals("java.util.Collections.unmodifiableList(java.util.Arrays.asList(\"\"))", 
+				ViewParametersSchema.listExpression("\\"));
+		Assert.assertEquals("java.util.Collections.unmodifiableList(java.util.Arrays.asList(\"\", \"\"))", 
+				ViewParametersSchema.listExpression(","));
+	}
+	
+	@Test
+	public void testStaticViewsCanDeclareParameters() throws UnableToCompleteException {
+		RecordingLogger logger = new RecordingLogger();
+		ViewParametersSchema.checkView(logger, "com.example.OrdersView", "customers/orders");
+		Assert.assertTrue(logger.errors.isEmpty());
+	}
+	
+	@Test
+	public void testRoutePatternsCannotDeclareParameters() {
+		RecordingLogger logger = new RecordingLogger();
+		try {
+			ViewParametersSchema.checkView(logger, "com.example.OrdersView", "customers/{id}/orders");
+			Assert.fail("Route patterns must not accept parameters");
+		} catch (UnableToCompleteException e) {
+			Assert.assertEquals(1, logger.errors.size());
+			String error = logger.errors.get(0);
+			Assert.assertTrue(error, error.contains("com.example.OrdersView"));
+			Assert.assertTrue(error, error.contains("customers/{id}/orders"));
+		}
+	}
+
+}